@@ -0,0 +1,47 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.RandomXS128;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One frame of the meteor system (update plus vertex emission for the single draw)
+ * at a constant number of live meteors; expired ones are respawned each op. ns/op
+ * should scale linearly with activeMeteors and the gc profiler should report 0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MeteorShowerBenchmark {
+    @Param({"10", "100", "1000"})
+    public int activeMeteors;
+
+    private MeteorShower shower;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        shower = new MeteorShower(activeMeteors, new RandomXS128(1));
+        shower.burst(activeMeteors, Lander.WORLD_WIDTH_M / 2f, 120f, 100f, 10f);
+    }
+
+    @Benchmark
+    public int frame() {
+        shower.update(1f / 60f);
+        shower.burst(activeMeteors - shower.activeCount(), Lander.WORLD_WIDTH_M / 2f, 120f, 100f, 10f);
+        return shower.buildVertices();
+    }
+}
@@ -0,0 +1,74 @@
+package com.dsrts.lander;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Controller and force/state sync cost, without stepping the world.
+ * Fuel is topped up every op so applyForces never takes its empty-tank early exit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhysicsBenchmark {
+    private Simulation sim;
+    private LanderState lander;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 1L);
+        sim = new Simulation(heights);
+        lander = sim.lander;
+    }
+
+    @Setup(Level.Iteration)
+    public void hover() {
+        sim.place(Lander.WORLD_WIDTH_M / 2f, 100f, 0f, 0f, 0f);
+        lander.throttle = LanderState.INITIAL_THROTTLE;
+        lander.goalVy = 0f;
+        lander.goalAngle = 0f;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sim.dispose();
+    }
+
+    @Benchmark
+    public void advance() {
+        lander.fuelMass = 1500f;
+        Physics.advance(lander, Simulation.DT);
+    }
+
+    @Benchmark
+    public void flybywire() {
+        lander.fuelMass = 1500f;
+        Physics.flybywire(lander, Simulation.DT);
+    }
+
+    @Benchmark
+    public void applyForces() {
+        lander.fuelMass = 1500f;
+        Physics.applyForces(lander, Simulation.DT);
+    }
+
+    @Benchmark
+    public void syncState() {
+        Physics.syncState(lander, Simulation.DT);
+    }
+}
@@ -0,0 +1,60 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Height generation alone, the full generateTerrain including the Box2D chain, and
+ * a ten-million-sample map on every core.
+ * generateTerrain builds into a fresh world each op: destroying a chain whose proxies
+ * are still in the broadphase move buffer is quadratic and would swamp the number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TerrainBenchmark {
+    private float[] heights;
+    private float[] largeHeights;
+    private int[] largePads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        heights = new float[Terrain.terrainHeights.length];
+        largeHeights = new float[10_000_000];
+        largePads = Terrain.layoutPads(largeHeights.length);
+    }
+
+    @Benchmark
+    public float[] generateHeights() {
+        Terrain.generateHeights(heights, 1L);
+        return heights;
+    }
+
+    @Benchmark
+    public float[] generateLargeMap() {
+        FractalTerrain.generate(largeHeights, largePads, Terrain.padWidth, 1L);
+        return largeHeights;
+    }
+
+    @Benchmark
+    public void generateTerrain() {
+        World world = new World(new Vector2(0, -Physics.GRAVITY), true);
+        Terrain.generateTerrain(world, Lander.WORLD_WIDTH_M, 1L);
+        world.dispose();
+    }
+}
@@ -0,0 +1,79 @@
+package com.dsrts.lander;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Box2D World.step(dt, 6, 2) against the full 4800-vertex terrain chain, and the
+ * complete fixed-step tick that Lander.render() runs per physics step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldStepBenchmark {
+    private Simulation flight;  // lander drifting in zero gravity, no contacts
+    private Simulation landed;  // lander resting on a pad, persistent contact
+    private Simulation tick;    // FBW hover, the normal in-flight tick
+
+    @Setup(Level.Trial)
+    public void setup() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 1L);
+
+        flight = new Simulation(heights);
+        flight.world.setGravity(flight.world.getGravity().setZero());
+
+        landed = new Simulation(heights);
+        float padX = Terrain.padCenters[0] * Lander.WORLD_WIDTH_M / heights.length;
+        landed.place(padX, Terrain.TERRAIN_BASE + Lander.LANDER_HALF_H + 0.5f, 0f, 0f, 0f);
+        for (int i = 0; i < 120; i++) landed.world.step((float)Simulation.DT, 6, 2);
+
+        tick = new Simulation(heights);
+        tick.lander.flyByWireMode = true;
+    }
+
+    @Setup(Level.Iteration)
+    public void hover() {
+        flight.place(Lander.WORLD_WIDTH_M / 2f, 100f, 0f, 0f, 0f);
+        tick.place(Lander.WORLD_WIDTH_M / 2f, 100f, 0f, 0f, 0f);
+        tick.lander.goalVy = 0f;
+        tick.lander.goalAngle = 0f;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flight.dispose();
+        landed.dispose();
+        tick.dispose();
+    }
+
+    @Benchmark
+    public void worldStepFlight() {
+        flight.world.step((float)Simulation.DT, 6, 2);
+    }
+
+    @Benchmark
+    public void worldStepLanded() {
+        landed.world.step((float)Simulation.DT, 6, 2);
+    }
+
+    @Benchmark
+    public void fixedStepTick() {
+        tick.lander.fuelMass = 1500f;
+        tick.step();
+    }
+}
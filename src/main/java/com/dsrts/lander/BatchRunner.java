@@ -0,0 +1,220 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless landing evaluator. Runs a set of scenarios through {@link Simulation}
+ * under the FBW autopilot as fast as the CPU allows, one Box2D world per worker thread.
+ *
+ * Usage: BatchRunner [--runs N] [--threads N] [--max-steps N] [--seed N] [--width M] [--map FILE] [--hybrid] [--quiet]
+ *
+ * Widths beyond the standard 750 m stream the surface through {@link TerrainChunks}.
+ * --map flies each scenario over a region of one {@link MapFile}, --width wide around a
+ * random pad; the file is mapped once and shared by all workers.
+ * --hybrid integrates free flight with {@link FreeFlight} and only steps Box2D near the ground.
+ */
+public class BatchRunner {
+    public static final int OUTCOME_LANDED = 0;
+    public static final int OUTCOME_CRASHED = 1;
+    public static final int OUTCOME_TIMEOUT = 2;
+    static final String[] OUTCOME_NAMES = {"LANDED", "CRASHED", "TIMEOUT"};
+
+    /** Start state plus autopilot setpoints for one run. */
+    public static class Scenario {
+        public int pad;              // index into Terrain.padCenters to aim for
+        public float x, y;           // meters
+        public float vx, vy;         // m/s
+        public float angle;          // degrees
+        public float fuelMass;       // kg
+        public float cruiseVy = -3f; // m/s, goalVy above the flare altitude
+        public float finalVy = -0.8f; // m/s, goalVy below the flare altitude
+        public float flareAltitude = 15f; // meters above ground
+        public long terrainSeed;
+
+        public static Scenario random(Random rng, int[] padCenters, float worldWidth) {
+            Scenario s = new Scenario();
+            s.pad = rng.nextInt(padCenters.length);
+            float padX = padCenters[s.pad] * Terrain.SAMPLE_SPACING_M;
+            s.x = MathUtils.clamp(padX + (rng.nextFloat() * 2f - 1f) * 60f, 10f, worldWidth - 10f);
+            s.y = 100f + rng.nextFloat() * 40f;
+            s.vx = (rng.nextFloat() * 2f - 1f) * 3f;
+            s.vy = LanderState.INITIAL_DESCENT_RATE * rng.nextFloat();
+            s.angle = (rng.nextFloat() * 2f - 1f) * 5f;
+            s.fuelMass = 800f + rng.nextFloat() * 700f;
+            s.terrainSeed = rng.nextLong();
+            return s;
+        }
+    }
+
+    /** Outcome of one run. */
+    public static class Result {
+        public int outcome;
+        public float touchdownSpeed; // m/s, -1 if the lander never touched ground
+        public float fuelLeft;       // kg
+        public long steps;
+    }
+
+    /** Runs one scenario to completion on the calling thread. */
+    public static Result run(Scenario scenario, float[] terrainHeights, int[] padCenters, long maxSteps) {
+        return run(scenario, terrainHeights, padCenters, maxSteps, false);
+    }
+
+    public static Result run(Scenario scenario, float[] terrainHeights, int[] padCenters, long maxSteps, boolean hybrid) {
+        float worldWidth = terrainHeights.length * Terrain.SAMPLE_SPACING_M;
+        boolean chunked = worldWidth > Lander.WORLD_WIDTH_M;
+        return fly(new Simulation(terrainHeights, worldWidth, padCenters, chunked), scenario, maxSteps, hybrid);
+    }
+
+    /** Runs one scenario over a region of a mapped map; any number of threads may share the map. */
+    public static Result run(Scenario scenario, MapFile.Region region, long maxSteps, boolean hybrid) {
+        return fly(new Simulation(region), scenario, maxSteps, hybrid);
+    }
+
+    private static Result fly(Simulation sim, Scenario scenario, long maxSteps, boolean hybrid) {
+        sim.hybrid = hybrid;
+        try {
+            LanderState lander = sim.lander;
+            sim.place(scenario.x, scenario.y, scenario.vx, scenario.vy, scenario.angle);
+            lander.fuelMass = scenario.fuelMass;
+            lander.flyByWireMode = true;
+
+            while (lander.alive && !lander.landed && sim.steps < maxSteps) {
+                autopilot(sim, scenario);
+                sim.step();
+            }
+
+            Result result = new Result();
+            result.outcome = lander.landed ? OUTCOME_LANDED : (!lander.alive ? OUTCOME_CRASHED : OUTCOME_TIMEOUT);
+            result.touchdownSpeed = lander.touchdownSpeed;
+            result.fuelLeft = lander.fuelMass;
+            result.steps = sim.steps;
+            return result;
+        } finally {
+            sim.dispose();
+        }
+    }
+
+    /** Simple descent schedule: steer over the target pad, then drop at cruise and flare rates. */
+    static void autopilot(Simulation sim, Scenario scenario) {
+        autopilot(sim.lander, scenario, sim.terrain);
+    }
+
+    static void autopilot(LanderState lander, Scenario scenario, TerrainIndex terrain) {
+        float ground = terrain.heightAt(lander.x);
+        float altitude = lander.y - Lander.LANDER_HALF_H - ground;
+
+        float dx = terrain.padX(scenario.pad) - lander.x;
+        float desiredVx = MathUtils.clamp(dx * 0.1f, -5f, 5f);
+        // Positive angle tilts thrust to the left, so tilt against the velocity error
+        lander.goalAngle = MathUtils.clamp((lander.vx - desiredVx) * 3f, -15f, 15f);
+
+        float padHalfW = terrain.padWidth * terrain.spacing / 2f;
+        if (altitude > scenario.flareAltitude) {
+            lander.goalVy = scenario.cruiseVy;
+        } else if (Math.abs(dx) > padHalfW / 2f) {
+            lander.goalVy = 0f; // hold altitude until over the pad
+        } else {
+            lander.goalVy = scenario.finalVy;
+            lander.goalAngle = 0f;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxSteps = 60L * 60 * 5; // five simulated minutes
+        long seed = System.nanoTime();
+        float width = Lander.WORLD_WIDTH_M;
+        boolean quiet = false;
+        boolean hybrid = false;
+        MapFile map = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs": runs = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--max-steps": maxSteps = Long.parseLong(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--width": width = Float.parseFloat(args[++i]); break;
+                case "--map": map = MapFile.open(Paths.get(args[++i])); break;
+                case "--hybrid": hybrid = true; break;
+                case "--quiet": quiet = true; break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        int samples = Math.round(width / Terrain.SAMPLE_SPACING_M);
+        int[] padCenters = samples == Terrain.terrainHeights.length ? Terrain.padCenters : Terrain.layoutPads(samples);
+
+        Random rng = new Random(seed);
+        Scenario[] scenarios = new Scenario[runs];
+        MapFile.Region[] regions = map != null ? new MapFile.Region[runs] : null;
+        for (int i = 0; i < runs; i++) {
+            if (map != null) {
+                int length = Math.round(width / map.spacing);
+                regions[i] = map.region(map.padCenters[rng.nextInt(map.padCenters.length)], length);
+                scenarios[i] = Scenario.random(rng, regions[i].padCenters, regions[i].worldWidth);
+            } else {
+                scenarios[i] = Scenario.random(rng, padCenters, width);
+            }
+        }
+
+        long start = System.nanoTime();
+        Result[] results = runAll(scenarios, samples, padCenters, regions, threads, maxSteps, hybrid);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int[] counts = new int[OUTCOME_NAMES.length];
+        long totalSteps = 0;
+        if (!quiet) System.out.println("run,outcome,touchdownSpeed,fuelLeft,steps");
+        for (int i = 0; i < runs; i++) {
+            Result r = results[i];
+            counts[r.outcome]++;
+            totalSteps += r.steps;
+            if (!quiet) {
+                System.out.println(i + "," + OUTCOME_NAMES[r.outcome] + "," + r.touchdownSpeed + "," + r.fuelLeft + "," + r.steps);
+            }
+        }
+        System.err.printf("seed=%d runs=%d threads=%d landed=%d crashed=%d timeout=%d%n",
+                seed, runs, threads, counts[OUTCOME_LANDED], counts[OUTCOME_CRASHED], counts[OUTCOME_TIMEOUT]);
+        System.err.printf("%.2f s, %.0f runs/s, %.0f steps/s%n", seconds, runs / seconds, totalSteps / seconds);
+    }
+
+    /**
+     * Runs all scenarios across a fixed pool; each worker owns its terrain array and worlds.
+     * With regions, scenario i flies over regions[i] of a map instead and no terrain is generated.
+     */
+    public static Result[] runAll(Scenario[] scenarios, int samples, int[] padCenters, MapFile.Region[] regions,
+                                  int threads, long maxSteps, boolean hybrid) throws Exception {
+        Result[] results = new Result[scenarios.length];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int worker = t;
+                final int workers = threads;
+                futures.add(pool.submit(() -> {
+                    float[] heights = regions == null ? new float[samples] : null;
+                    for (int i = worker; i < scenarios.length; i += workers) {
+                        if (regions != null) {
+                            results[i] = run(scenarios[i], regions[i], maxSteps, hybrid);
+                            continue;
+                        }
+                        Terrain.generateHeights(heights, padCenters, Terrain.padWidth, scenarios[i].terrainSeed);
+                        results[i] = run(scenarios[i], heights, padCenters, maxSteps, hybrid);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+}
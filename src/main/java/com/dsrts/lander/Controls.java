@@ -0,0 +1,88 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+
+/**
+ * Pilot input for one physics tick packed into the low bits of an int: the keys
+ * held during the tick plus the key presses (edges) that happened since the last
+ * tick. Everything the keyboard can change goes through {@link #apply}, so a
+ * recorded sequence of these words replays a flight exactly.
+ */
+public class Controls {
+    // Held keys
+    public static final int UP = 1;
+    public static final int DOWN = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int RIGHT = 1 << 3;
+    public static final int SPACE = 1 << 4;
+    // Presses
+    public static final int TOGGLE_FBW = 1 << 5;
+    public static final int GOAL_VY_UP = 1 << 6;
+    public static final int GOAL_VY_DOWN = 1 << 7;
+    public static final int GOAL_ANGLE_LEFT = 1 << 8;
+    public static final int GOAL_ANGLE_RIGHT = 1 << 9;
+
+    public static final int HELD_MASK = UP | DOWN | LEFT | RIGHT | SPACE;
+    public static final int BITS = 10;
+
+    static final float GOAL_INCREMENT = 0.5f; // Incremented per tap
+    static final float ANGLE_INCREMENT = 5.0f; // Degrees per tap
+
+    /** Samples the keyboard: held keys plus this frame's presses. */
+    public static int poll() {
+        int input = 0;
+        if (Gdx.input.isKeyPressed(Input.Keys.UP)) input |= UP;
+        if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) input |= DOWN;
+        if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) input |= LEFT;
+        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) input |= RIGHT;
+        if (Gdx.input.isKeyPressed(Input.Keys.SPACE)) input |= SPACE;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.A)) input |= TOGGLE_FBW;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.UP)) input |= GOAL_VY_UP;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.DOWN)) input |= GOAL_VY_DOWN;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) input |= GOAL_ANGLE_LEFT;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) input |= GOAL_ANGLE_RIGHT;
+        return input;
+    }
+
+    /** Applies one tick of input to the lander's keys, mode and goals. */
+    public static void apply(LanderState lander, int input) {
+        lander.up = (input & UP) != 0;
+        lander.down = (input & DOWN) != 0;
+        lander.left = (input & LEFT) != 0;
+        lander.right = (input & RIGHT) != 0;
+        lander.space = (input & SPACE) != 0;
+
+        if ((input & TOGGLE_FBW) != 0) {
+            lander.flyByWireMode = !lander.flyByWireMode;
+            if (lander.flyByWireMode) {
+                // Sync goals to actual state when turning FBW ON
+                float currentVy = lander.vy;
+                if (Math.abs(currentVy) <= 0.5f) {
+                    lander.goalVy = Math.round(currentVy * 10f) / 10.0f;
+                } else {
+                    lander.goalVy = Math.round(currentVy * 2f) / 2.0f;
+                }
+                lander.goalAngle = (float)(Math.floor(lander.angle / ANGLE_INCREMENT) * ANGLE_INCREMENT);
+            }
+        }
+
+        if (lander.flyByWireMode) {
+            if ((input & GOAL_VY_UP) != 0) {
+                float vyInc = (lander.goalVy >= -0.49f && lander.goalVy < 0.5f) ? 0.1f : GOAL_INCREMENT;
+                lander.goalVy += vyInc;
+            }
+            if ((input & GOAL_VY_DOWN) != 0) {
+                float vyInc = (lander.goalVy > -0.5f && lander.goalVy <= 0.49f) ? 0.1f : GOAL_INCREMENT;
+                lander.goalVy -= vyInc;
+            }
+            if ((input & GOAL_ANGLE_LEFT) != 0) lander.goalAngle += ANGLE_INCREMENT;
+            if ((input & GOAL_ANGLE_RIGHT) != 0) lander.goalAngle -= ANGLE_INCREMENT;
+        } else {
+            // Manual mode: keep goals updated
+            lander.goalVx = lander.vx;
+            lander.goalVy = lander.vy;
+            lander.goalAngle = lander.angle;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Fly-by-wire controller gains. {@link #DEFAULTS} holds the hand-tuned values;
+ * {@link GainTuner} searches for better ones and saves them as a properties file
+ * that the game loads with --gains.
+ */
+public class FbwGains {
+    /** Property keys, in {@link #toVector()} order. */
+    static final String[] NAMES = {
+        "kpVy", "kiVy", "kdVy", "kpAngle", "kdAngle", "vyErrorSmoothing", "vyDerivativeSmoothing", "angularDamping"
+    };
+
+    /** Shared by every lander that was not given its own gains; never modify. */
+    public static final FbwGains DEFAULTS = new FbwGains();
+
+    // Vertical speed PID, on the low-pass filtered error
+    public float kpVy = 3.0f;
+    public float kiVy = 1.0f;
+    public float kdVy = 1.5f;
+    // Attitude PD
+    public float kpAngle = 0.05f;
+    public float kdAngle = 0.02f;
+    // Low-pass factors per step for the vertical error and its derivative
+    public float vyErrorSmoothing = 0.1f;
+    public float vyDerivativeSmoothing = 0.05f;
+    public float angularDamping = Physics.FBW_ANGULAR_DAMPING; // 1/s
+
+    public float[] toVector() {
+        return new float[] {kpVy, kiVy, kdVy, kpAngle, kdAngle, vyErrorSmoothing, vyDerivativeSmoothing, angularDamping};
+    }
+
+    public static FbwGains fromVector(float[] v) {
+        FbwGains g = new FbwGains();
+        g.kpVy = v[0]; g.kiVy = v[1]; g.kdVy = v[2];
+        g.kpAngle = v[3]; g.kdAngle = v[4];
+        g.vyErrorSmoothing = v[5]; g.vyDerivativeSmoothing = v[6];
+        g.angularDamping = v[7];
+        return g;
+    }
+
+    /** Reads a gains profile; keys that are missing keep their default. */
+    public static FbwGains load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            props.load(in);
+        }
+        float[] v = DEFAULTS.toVector();
+        for (int i = 0; i < NAMES.length; i++) {
+            String value = props.getProperty(NAMES[i]);
+            if (value != null) v[i] = Float.parseFloat(value.trim());
+        }
+        return fromVector(v);
+    }
+
+    public void save(Path file, String comment) throws IOException {
+        Properties props = new Properties();
+        float[] v = toVector();
+        for (int i = 0; i < NAMES.length; i++) props.setProperty(NAMES[i], Float.toString(v[i]));
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (Writer out = Files.newBufferedWriter(file)) {
+            props.store(out, comment);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        float[] v = toVector();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(NAMES[i]).append('=').append(v[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import java.util.Random;
+
+/**
+ * Many landers in one Box2D world, each flown by the FBW controller under the
+ * {@link BatchRunner} autopilot. Landers are filtered to collide with terrain
+ * only, contacts are resolved through fixture userData by {@link LandingContacts},
+ * and a lander is deactivated as soon as it lands or crashes, which is where a
+ * {@link BatchRunner} run ends too. Parked landers would otherwise stay awake (thrust
+ * wakes the body) with overlapping AABBs on the same few pads, and the broad-phase
+ * would re-pair every one of them each step.
+ *
+ * Usage: Fleet [--landers N] [--seconds S] [--seed N]
+ */
+public class Fleet {
+    public final World world;
+    public final float[] terrainHeights;
+    public final float worldWidth;
+    public final int[] padCenters;
+    public final TerrainIndex terrain;
+    public final Body terrainBody;
+    public final LanderState[] landers;
+    public final BatchRunner.Scenario[] scenarios;
+
+    public long steps = 0;
+    private final boolean[] retired;
+
+    public Fleet(float[] terrainHeights, int[] padCenters, int count, Random rng) {
+        this.terrainHeights = terrainHeights;
+        this.worldWidth = terrainHeights.length * Terrain.SAMPLE_SPACING_M;
+        this.padCenters = padCenters;
+        this.terrain = new TerrainIndex(terrainHeights, worldWidth, padCenters, Terrain.padWidth);
+
+        world = new World(new Vector2(0, -Physics.GRAVITY), true);
+        world.setContactListener(new LandingContacts());
+        terrainBody = Terrain.createTerrainBody(world, terrainHeights, worldWidth, padCenters, Terrain.padWidth);
+
+        landers = new LanderState[count];
+        scenarios = new BatchRunner.Scenario[count];
+        retired = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            BatchRunner.Scenario s = BatchRunner.Scenario.random(rng, padCenters, worldWidth);
+            LanderState lander = new LanderState(terrainHeights, worldWidth, Lander.WORLD_HEIGHT_M, Lander.LANDER_WIDTH_M,
+                    Lander.LANDER_HEIGHT_M, Lander.LANDER_HALF_W, Lander.LANDER_HALF_H);
+            lander.x = s.x; lander.y = s.y;
+            lander.vx = s.vx; lander.vy = s.vy;
+            lander.angle = s.angle;
+            lander.rotCos = MathUtils.cosDeg(s.angle);
+            lander.rotSin = MathUtils.sinDeg(s.angle);
+            lander.fuelMass = s.fuelMass;
+            lander.flyByWireMode = true;
+            lander.body = Simulation.createLanderBody(world, lander);
+            lander.body.setLinearVelocity(s.vx, s.vy);
+            landers[i] = lander;
+            scenarios[i] = s;
+        }
+    }
+
+    /** One fixed step for the whole fleet; full solver iterations only while some lander has a contact. */
+    public void step() {
+        Simulation.stepWorld(world);
+        for (int i = 0; i < landers.length; i++) {
+            LanderState lander = landers[i];
+            if (retired[i]) continue;
+            if (!lander.alive || lander.landed) {
+                lander.body.setActive(false); // wreck or parked: no further contacts or integration
+                retired[i] = true;
+                continue;
+            }
+            BatchRunner.autopilot(lander, scenarios[i], terrain);
+            Physics.flybywire(lander, Simulation.DT);
+        }
+        steps++;
+    }
+
+    public int countAlive() {
+        int n = 0;
+        for (LanderState l : landers) if (l.alive) n++;
+        return n;
+    }
+
+    public int countLanded() {
+        int n = 0;
+        for (LanderState l : landers) if (l.alive && l.landed) n++;
+        return n;
+    }
+
+    public void dispose() {
+        world.dispose();
+    }
+
+    public static void main(String[] args) {
+        int count = 500;
+        float seconds = 60f;
+        long seed = 1L;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--landers": count = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Float.parseFloat(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Random rng = new Random(seed);
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, rng.nextLong());
+        Fleet fleet = new Fleet(heights, Terrain.padCenters, count, rng);
+        try {
+            Histogram tickNanos = new Histogram();
+            long ticks = Math.round(seconds / Simulation.DT);
+            long start = System.nanoTime();
+            for (long t = 0; t < ticks; t++) {
+                long t0 = System.nanoTime();
+                fleet.step();
+                tickNanos.record(System.nanoTime() - t0);
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            int alive = fleet.countAlive();
+            int landed = fleet.countLanded();
+            System.err.printf("landers=%d seconds=%.0f landed=%d crashed=%d flying=%d%n",
+                    count, seconds, landed, count - alive, alive - landed);
+            System.err.printf("tick mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms; %.1fx real time%n",
+                    tickNanos.mean() / 1e6, tickNanos.percentile(0.5) / 1e6, tickNanos.percentile(0.99) / 1e6,
+                    tickNanos.max() / 1e6, seconds / elapsed);
+        } finally {
+            fleet.dispose();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read side of a {@link FlightRecorder} file. The file is memory-mapped, so reading
+ * the header of many logs only touches their first page and decoding inputs copies
+ * nothing. Inputs come back one tick at a time through {@link #next()}.
+ */
+public class FlightLog {
+    public final Path path;
+    public final long seed;
+    public final int tickRate;
+    public final long tickCount;
+    public final FbwGains gains; // the lander's FBW gains when it was flown
+
+    private final MappedByteBuffer data;
+    private int runInput;
+    private long runLeft = 0;
+    private long read = 0;
+
+    private FlightLog(Path path, MappedByteBuffer data) throws IOException {
+        this.path = path;
+        this.data = data;
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < FlightRecorder.HEADER_BYTES || data.getInt() != FlightRecorder.MAGIC) {
+            throw new IOException("Not a flight log: " + path);
+        }
+        short version = data.getShort();
+        if (version != FlightRecorder.VERSION) {
+            throw new IOException("Unsupported flight log version " + version + ": " + path);
+        }
+        tickRate = data.getShort();
+        seed = data.getLong();
+        tickCount = data.getLong();
+        float[] v = new float[FbwGains.NAMES.length];
+        for (int i = 0; i < v.length; i++) v[i] = data.getFloat();
+        gains = FbwGains.fromVector(v);
+    }
+
+    public static FlightLog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new FlightLog(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public boolean hasNext() {
+        return read < tickCount;
+    }
+
+    /** The {@link Controls} word for the next tick. */
+    public int next() {
+        if (runLeft == 0) {
+            if (!data.hasRemaining()) throw new IllegalStateException("Flight log truncated at tick " + read + ": " + path);
+            runInput = (int)getVarint();
+            runLeft = getVarint();
+        }
+        runLeft--;
+        read++;
+        return runInput;
+    }
+
+    /** Restarts decoding from the first tick. */
+    public void rewind() {
+        data.position(FlightRecorder.HEADER_BYTES);
+        runLeft = 0;
+        read = 0;
+    }
+
+    private long getVarint() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (long)(b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes a flight log: the terrain seed and FBW gains followed by one {@link Controls}
+ * word per physics tick, run-length encoded as (input, run) varint pairs. Runs are
+ * packed into direct buffers on the caller's thread and handed to a writer thread
+ * that owns the FileChannel, so the render thread never blocks on disk.
+ *
+ * Layout, little-endian: magic, version, tick rate, seed, tick count (patched on close),
+ * the gains as floats in {@link FbwGains#toVector()} order, then the runs. See
+ * {@link FlightLog} for the reader.
+ */
+public class FlightRecorder implements AutoCloseable {
+    static final int MAGIC = 0x464C444C; // "LDLF"
+    static final short VERSION = 3; // 2: fractal terrain, so version 1 seeds map to different ground; 3: gains
+    static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 8 + 4 * FbwGains.NAMES.length;
+    static final int TICK_COUNT_OFFSET = 16;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int BUFFER_COUNT = 4;
+    private static final int MAX_RUN_BYTES = 5 + 10; // varint input + varint run
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+    private final ByteBuffer poison = ByteBuffer.allocate(0);
+    private final Thread writer;
+    private volatile IOException failure;
+
+    private ByteBuffer current;
+    private int runInput = -1;
+    private long runLength = 0;
+    private long ticks = 0;
+    private boolean closed = false;
+
+    public FlightRecorder(Path path, long seed, FbwGains gains) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN));
+        }
+        current = free.poll();
+        current.putInt(MAGIC).putShort(VERSION).putShort((short)Math.round(1.0 / Simulation.DT))
+                .putLong(seed).putLong(0L);
+        for (float g : gains.toVector()) current.putFloat(g);
+
+        writer = new Thread(this::drain, "flight-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public long ticks() { return ticks; }
+
+    /** Appends one tick of input. Called from the simulation thread only. */
+    public void record(int input) {
+        ticks++;
+        if (input == runInput) {
+            runLength++;
+            return;
+        }
+        flushRun();
+        runInput = input;
+        runLength = 1;
+    }
+
+    private void flushRun() {
+        if (runLength == 0) return;
+        if (current.remaining() < MAX_RUN_BYTES) handOff();
+        putVarint(current, runInput);
+        putVarint(current, runLength);
+    }
+
+    private void handOff() {
+        current.flip();
+        full.add(current);
+        try {
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the flight recorder", e);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer buffer = full.take();
+                if (buffer == poison) return;
+                if (failure == null) {
+                    try {
+                        while (buffer.hasRemaining()) channel.write(buffer);
+                    } catch (IOException e) {
+                        failure = e; // keep draining so record() never stalls
+                    }
+                }
+                buffer.clear();
+                free.add(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Flushes the last run, waits for the writer and patches the tick count into the header. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        flushRun();
+        runLength = 0;
+        current.flip();
+        full.add(current);
+        full.add(poison);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure != null) throw failure;
+            ByteBuffer count = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, ticks);
+            channel.write(count, TICK_COUNT_OFFSET);
+        } finally {
+            channel.close();
+        }
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte)value);
+    }
+
+    /** Opens a recorder, turning the checked exception into an unchecked one for callers in render code. */
+    public static FlightRecorder open(Path path, long seed, FbwGains gains) {
+        try {
+            return new FlightRecorder(path, seed, gains);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
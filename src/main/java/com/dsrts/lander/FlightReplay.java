@@ -0,0 +1,114 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Headless replay of recorded flights at full speed. Each log's terrain is
+ * regenerated from its seed, the lander flies with the log's FBW gains, and its
+ * inputs are fed through the same {@link Simulation#step(int)} the game uses, so
+ * the outcome matches the flight.
+ *
+ * Usage: FlightReplay [--threads N] [--header-only] file-or-directory...
+ */
+public class FlightReplay {
+    public static final String EXTENSION = ".lfr";
+
+    /** Replays every tick in the log; heights is scratch space of the standard length. */
+    public static BatchRunner.Result replay(FlightLog log, float[] heights) {
+        Terrain.generateHeights(heights, log.seed);
+        Simulation sim = new Simulation(heights);
+        sim.lander.gains = log.gains;
+        try {
+            log.rewind();
+            while (log.hasNext()) {
+                sim.step(log.next());
+            }
+            BatchRunner.Result result = new BatchRunner.Result();
+            LanderState lander = sim.lander;
+            if (!lander.alive) result.outcome = BatchRunner.OUTCOME_CRASHED;
+            else if (lander.landed) result.outcome = BatchRunner.OUTCOME_LANDED;
+            else result.outcome = BatchRunner.OUTCOME_TIMEOUT; // still flying when the recording stopped
+            result.touchdownSpeed = lander.touchdownSpeed;
+            result.fuelLeft = lander.fuelMass;
+            result.steps = sim.steps;
+            return result;
+        } finally {
+            sim.dispose();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean headerOnly = false;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--header-only": headerOnly = true; break;
+                default: collect(Paths.get(args[i]), files);
+            }
+        }
+        files.sort(null);
+
+        long start = System.nanoTime();
+        FlightLog[] logs = new FlightLog[files.size()];
+        for (int i = 0; i < logs.length; i++) logs[i] = FlightLog.open(files.get(i));
+
+        BatchRunner.Result[] results = new BatchRunner.Result[logs.length];
+        if (!headerOnly) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final int worker = t;
+                    final int workers = threads;
+                    futures.add(pool.submit(() -> {
+                        float[] heights = new float[Terrain.terrainHeights.length];
+                        for (int i = worker; i < logs.length; i += workers) {
+                            results[i] = replay(logs[i], heights);
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) f.get();
+            } finally {
+                pool.shutdown();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long totalTicks = 0;
+        System.out.println(headerOnly ? "file,seed,ticks" : "file,seed,ticks,outcome,touchdownSpeed,fuelLeft");
+        for (int i = 0; i < logs.length; i++) {
+            FlightLog log = logs[i];
+            totalTicks += log.tickCount;
+            StringBuilder line = new StringBuilder().append(log.path).append(',').append(log.seed).append(',').append(log.tickCount);
+            if (!headerOnly) {
+                BatchRunner.Result r = results[i];
+                line.append(',').append(BatchRunner.OUTCOME_NAMES[r.outcome]).append(',')
+                        .append(r.touchdownSpeed).append(',').append(r.fuelLeft);
+            }
+            System.out.println(line);
+        }
+        System.err.printf("%d flights, %d ticks, %.2f s, %.0f ticks/s%n",
+                logs.length, totalTicks, seconds, totalTicks / seconds);
+    }
+
+    private static void collect(Path path, List<Path> out) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> entries = Files.list(path)) {
+                entries.filter(p -> p.toString().endsWith(EXTENSION)).forEach(out::add);
+            }
+        } else {
+            out.add(path);
+        }
+    }
+}
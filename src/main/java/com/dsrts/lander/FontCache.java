@@ -0,0 +1,268 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Pre-rasterized glyph atlases kept on disk, so FreeType only runs the first time a
+ * font, size and character set are used. A cached font is a .glyphs file with the
+ * BitmapFontData metrics and every glyph, plus one PNG per atlas page, named after a
+ * checksum of the font file's bytes, the size and the characters; any change to
+ * those is a different file, never a stale one.
+ *
+ * {@link #prepare} does all the rasterizing, decoding and file I/O and needs no GL
+ * context, so it can run while the window is still coming up; {@link #upload} then
+ * turns the pages into textures on the GL thread.
+ */
+public class FontCache {
+    static final int MAGIC = 0x4C594746; // "FGYL"
+    static final short VERSION = 1;
+    static final int MIN_PAGE_SIZE = 256;
+    static final int MAX_PAGE_SIZE = 1024;
+
+    /** A font ready for {@link #upload}: metrics and glyphs, and the atlas pages they point into. */
+    public static class Atlas {
+        public final BitmapFont.BitmapFontData data;
+        public final Pixmap[] pages;
+        public final boolean fromCache;
+        public final long prepareNanos;
+
+        Atlas(BitmapFont.BitmapFontData data, Pixmap[] pages, boolean fromCache, long prepareNanos) {
+            this.data = data;
+            this.pages = pages;
+            this.fromCache = fromCache;
+            this.prepareNanos = prepareNanos;
+        }
+
+        public void dispose() {
+            for (Pixmap page : pages) if (!page.isDisposed()) page.dispose();
+        }
+    }
+
+    /**
+     * Loads the font from cacheDir, or rasterizes it with FreeType and stores it there.
+     * A cache that cannot be read or written only costs the rasterizing. Needs the gdx
+     * and gdx-freetype natives loaded, but no GL context.
+     */
+    public static Atlas prepare(FileHandle ttf, int size, String chars, Path cacheDir) {
+        long start = System.nanoTime();
+        byte[] fontBytes = ttf.readBytes();
+        Path glyphFile = cacheDir.resolve(ttf.nameWithoutExtension() + "-" + size + "-" + key(fontBytes, size, chars) + ".glyphs");
+        if (Files.exists(glyphFile)) {
+            try {
+                Atlas atlas = read(glyphFile);
+                return new Atlas(atlas.data, atlas.pages, true, System.nanoTime() - start);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Font cache " + glyphFile + " unreadable, rasterizing again: " + e);
+            }
+        }
+
+        Atlas atlas = rasterize(ttf, size, chars);
+        try {
+            write(glyphFile, atlas);
+        } catch (IOException e) {
+            System.err.println("Could not cache font in " + cacheDir + ": " + e);
+        }
+        return new Atlas(atlas.data, atlas.pages, false, System.nanoTime() - start);
+    }
+
+    /** Makes textures of the atlas pages and the font on them; GL thread only. The font owns the textures. */
+    public static BitmapFont upload(Atlas atlas) {
+        Array<TextureRegion> regions = new Array<>(atlas.pages.length);
+        for (Pixmap page : atlas.pages) regions.add(new TextureRegion(new Texture(page)));
+        atlas.dispose(); // the textures have their own copy
+        BitmapFont font = new BitmapFont(atlas.data, regions, true);
+        font.setOwnsTexture(true);
+        return font;
+    }
+
+    /**
+     * CRC-32 over the format version, the size, the characters and the font file, and the
+     * file's length. Not a secure hash, but the JDK's is native even before the JIT has
+     * warmed up, where SHA-256 alone would cost a cache hit most of its gain.
+     */
+    static String key(byte[] fontBytes, int size, String chars) {
+        CRC32 crc = new CRC32();
+        crc.update((VERSION + "/" + size + "/" + chars).getBytes(StandardCharsets.UTF_8));
+        crc.update(fontBytes);
+        return Long.toHexString(crc.getValue()) + "-" + fontBytes.length;
+    }
+
+    /** The FreeType path, white glyphs packed into pages of our own so that no texture is made here. */
+    static Atlas rasterize(FileHandle ttf, int size, String chars) {
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(ttf);
+        try {
+            FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+            parameter.size = size;
+            parameter.color = Color.WHITE;
+            parameter.characters = chars;
+            // Square pages about one font's worth of glyphs on a side, as the generator sizes its own
+            int pageSize = MathUtils.clamp(MathUtils.nextPowerOfTwo((int)Math.ceil(Math.sqrt(chars.length()) * size * 1.2f)),
+                    MIN_PAGE_SIZE, MAX_PAGE_SIZE);
+            PixmapPacker packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 1, false);
+            packer.setTransparentColor(new Color(1f, 1f, 1f, 0f));
+            parameter.packer = packer;
+            BitmapFont.BitmapFontData data = generator.generateData(parameter);
+            Pixmap[] pages = new Pixmap[packer.getPages().size];
+            for (int i = 0; i < pages.length; i++) pages[i] = packer.getPages().get(i).getPixmap();
+            return new Atlas(data, pages, false, 0);
+        } finally {
+            generator.dispose();
+        }
+    }
+
+    static void write(Path glyphFile, Atlas atlas) throws IOException {
+        Files.createDirectories(glyphFile.getParent());
+        String base = glyphFile.getFileName().toString().replace(".glyphs", "");
+        for (int i = 0; i < atlas.pages.length; i++) {
+            PixmapIO.writePNG(new FileHandle(glyphFile.resolveSibling(base + "-" + i + ".png").toFile()), atlas.pages[i]);
+        }
+
+        // The .glyphs file goes last and by rename, so its presence means the pages are complete
+        Path tmp = glyphFile.resolveSibling(glyphFile.getFileName() + ".tmp");
+        BitmapFont.BitmapFontData d = atlas.data;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(atlas.pages.length);
+            out.writeFloat(d.lineHeight);
+            out.writeFloat(d.capHeight);
+            out.writeFloat(d.ascent);
+            out.writeFloat(d.descent);
+            out.writeFloat(d.down);
+            out.writeFloat(d.blankLineScale);
+            out.writeFloat(d.scaleX);
+            out.writeFloat(d.scaleY);
+            out.writeFloat(d.spaceXadvance);
+            out.writeFloat(d.xHeight);
+            out.writeFloat(d.padTop);
+            out.writeFloat(d.padRight);
+            out.writeFloat(d.padBottom);
+            out.writeFloat(d.padLeft);
+            out.writeFloat(d.cursorX);
+            out.writeBoolean(d.flipped);
+            out.writeBoolean(d.markupEnabled);
+
+            int glyphs = 0;
+            for (BitmapFont.Glyph[] page : d.glyphs) if (page != null) for (BitmapFont.Glyph g : page) if (g != null) glyphs++;
+            out.writeInt(glyphs);
+            for (BitmapFont.Glyph[] page : d.glyphs) {
+                if (page == null) continue;
+                for (BitmapFont.Glyph g : page) {
+                    if (g != null) writeGlyph(out, g, g == d.missingGlyph);
+                }
+            }
+        }
+        Files.move(tmp, glyphFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeGlyph(DataOutputStream out, BitmapFont.Glyph g, boolean missing) throws IOException {
+        out.writeInt(g.id);
+        out.writeBoolean(missing);
+        out.writeShort(g.page);
+        out.writeShort(g.srcX);
+        out.writeShort(g.srcY);
+        out.writeShort(g.width);
+        out.writeShort(g.height);
+        out.writeShort(g.xoffset);
+        out.writeShort(g.yoffset);
+        out.writeShort(g.xadvance);
+        out.writeBoolean(g.fixedWidth);
+        int pairs = 0;
+        if (g.kerning != null) for (byte[] page : g.kerning) if (page != null) for (byte k : page) if (k != 0) pairs++;
+        out.writeInt(pairs);
+        if (pairs == 0) return;
+        for (int p = 0; p < g.kerning.length; p++) {
+            byte[] page = g.kerning[p];
+            if (page == null) continue;
+            for (int i = 0; i < page.length; i++) {
+                if (page[i] == 0) continue;
+                out.writeChar(p * page.length + i);
+                out.writeByte(page[i]);
+            }
+        }
+    }
+
+    static Atlas read(Path glyphFile) throws IOException {
+        BitmapFont.BitmapFontData d = new BitmapFont.BitmapFontData();
+        int pageCount;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(glyphFile)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a glyph cache file: " + glyphFile);
+            short version = in.readShort();
+            if (version != VERSION) throw new IOException("Unsupported glyph cache version " + version + ": " + glyphFile);
+            pageCount = in.readShort();
+            d.lineHeight = in.readFloat();
+            d.capHeight = in.readFloat();
+            d.ascent = in.readFloat();
+            d.descent = in.readFloat();
+            d.down = in.readFloat();
+            d.blankLineScale = in.readFloat();
+            d.scaleX = in.readFloat();
+            d.scaleY = in.readFloat();
+            d.spaceXadvance = in.readFloat();
+            d.xHeight = in.readFloat();
+            d.padTop = in.readFloat();
+            d.padRight = in.readFloat();
+            d.padBottom = in.readFloat();
+            d.padLeft = in.readFloat();
+            d.cursorX = in.readFloat();
+            d.flipped = in.readBoolean();
+            d.markupEnabled = in.readBoolean();
+
+            int glyphs = in.readInt();
+            for (int n = 0; n < glyphs; n++) {
+                BitmapFont.Glyph g = new BitmapFont.Glyph();
+                g.id = in.readInt();
+                boolean missing = in.readBoolean();
+                g.page = in.readShort();
+                g.srcX = in.readShort();
+                g.srcY = in.readShort();
+                g.width = in.readShort();
+                g.height = in.readShort();
+                g.xoffset = in.readShort();
+                g.yoffset = in.readShort();
+                g.xadvance = in.readShort();
+                g.fixedWidth = in.readBoolean();
+                int pairs = in.readInt();
+                for (int k = 0; k < pairs; k++) {
+                    char second = in.readChar();
+                    g.setKerning(second, in.readByte());
+                }
+                d.setGlyph(g.id, g);
+                if (missing) d.missingGlyph = g;
+            }
+        }
+
+        String base = glyphFile.getFileName().toString().replace(".glyphs", "");
+        Pixmap[] pages = new Pixmap[pageCount];
+        try {
+            for (int i = 0; i < pageCount; i++) {
+                byte[] png = Files.readAllBytes(glyphFile.resolveSibling(base + "-" + i + ".png"));
+                pages[i] = new Pixmap(png, 0, png.length);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Pixmap page : pages) if (page != null) page.dispose();
+            throw e;
+        }
+        return new Atlas(d, pages, true, 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.dsrts.lander;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeded multi-octave value noise for terrain heights. Lattice values come from a
+ * hash of (seed, octave, lattice index) rather than a random stream, so every sample
+ * depends only on its own index: any range can be filled on its own, in any order,
+ * on any thread, and the array comes out bit-identical.
+ *
+ * Octave spacings are powers of two in samples, so the lattice cell is a shift and
+ * each octave is one streaming pass over a cache-sized range that hashes once per
+ * cell and reads the smoothstep weights from a table. Pads are flattened to
+ * {@link Terrain#TERRAIN_BASE} and blended into the noise over {@link #PAD_BLEND}
+ * samples either side.
+ */
+public class FractalTerrain {
+    static final int OCTAVES = 6;
+    static final int BASE_SHIFT = 9;         // coarsest lattice spacing, 512 samples (80 m)
+    static final float PERSISTENCE = 0.5f;   // amplitude ratio between octaves
+    static final float RELIEF = 70f;         // meters above the base at full noise
+    static final int PAD_BLEND = 192;        // samples over which the noise fades into a pad
+    static final int RANGE = 1 << 16;        // samples per parallel task
+
+    /** Fills heights using every core; the result does not depend on the thread count. */
+    public static void generate(float[] heights, int[] padCenters, int padWidth, long seed) {
+        generate(heights, padCenters, padWidth, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static void generate(float[] heights, int[] padCenters, int padWidth, long seed, int threads) {
+        int ranges = (heights.length + RANGE - 1) / RANGE;
+        if (threads <= 1 || ranges == 1) {
+            fill(heights, 0, heights.length, padCenters, padWidth, seed);
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, ranges));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int r = 0; r < ranges; r++) {
+                int from = r * RANGE;
+                int to = Math.min(heights.length, from + RANGE);
+                futures.add(pool.submit(() -> fill(heights, from, to, padCenters, padWidth, seed)));
+            }
+            for (Future<?> f : futures) f.get();
+        } catch (Exception e) {
+            throw new RuntimeException("Terrain generation failed", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Smoothstep weights per octave, indexed by position within a lattice cell
+    private static final float[][] WEIGHTS = new float[OCTAVES][];
+    static {
+        for (int o = 0; o < OCTAVES; o++) {
+            int spacing = 1 << (BASE_SHIFT - o);
+            WEIGHTS[o] = new float[spacing];
+            for (int k = 0; k < spacing; k++) {
+                float t = (float)k / spacing;
+                WEIGHTS[o][k] = t * t * (3f - 2f * t); // slope stays continuous across cells
+            }
+        }
+    }
+
+    /** Fills heights[from, to) exactly as a whole-array generate would. */
+    public static void fill(float[] heights, int from, int to, int[] padCenters, int padWidth, long seed) {
+        fill(heights, from, from, to, padCenters, padWidth, seed);
+    }
+
+    /** Samples [from, to) of the map into out from offset, for maps too large to hold in one array. */
+    public static void fill(float[] out, int offset, int from, int to, int[] padCenters, int padWidth, long seed) {
+        int base = offset - from; // out index of sample 0
+        // Amplitudes are normalised so the octave sum stays within [0, 1)
+        float norm = 0f;
+        for (int o = 0; o < OCTAVES; o++) norm += (float)Math.pow(PERSISTENCE, o);
+
+        float amplitude = 1f / norm;
+        for (int o = 0; o < OCTAVES; o++) {
+            int shift = BASE_SHIFT - o;
+            int mask = (1 << shift) - 1;
+            float[] w = WEIGHTS[o];
+            long octaveSeed = seed + 0x632BE59BD9B4E019L * (o + 1);
+            // One hash pair per cell, then a branch-free run over the cell's samples
+            int i = from;
+            while (i < to) {
+                long cell = i >> shift;
+                int cellEnd = (int)Math.min(to, (cell + 1) << shift);
+                float a = lattice(octaveSeed, cell) * amplitude;
+                float d = lattice(octaveSeed, cell + 1) * amplitude - a;
+                int k = i & mask;
+                if (o == 0) {
+                    for (; i < cellEnd; i++, k++) out[base + i] = a + d * w[k];
+                } else {
+                    for (; i < cellEnd; i++, k++) out[base + i] += a + d * w[k];
+                }
+            }
+            amplitude *= PERSISTENCE;
+        }
+
+        // Scale, then flatten pads; pads are sorted, so walk the nearest one along the range
+        int p = Arrays.binarySearch(padCenters, from);
+        if (p < 0) p = -p - 1;
+        p = Math.max(0, p - 1); // the nearest to from is this one or the next
+        int half = padWidth / 2;
+        for (int i = from; i < to; i++) {
+            float h = Terrain.TERRAIN_BASE + out[base + i] * RELIEF;
+            if (padCenters.length > 0) {
+                while (p < padCenters.length - 1 && padCenters[p + 1] - i < i - padCenters[p]) p++;
+                // Pad span is [center - half, center + half), as Terrain lays it out
+                int outside = i < padCenters[p] ? (padCenters[p] - half) - i : i - (padCenters[p] + half - 1);
+                if (outside <= 0) {
+                    h = Terrain.TERRAIN_BASE;
+                } else if (outside < PAD_BLEND) {
+                    float t = (float)outside / PAD_BLEND;
+                    t = t * t * (3f - 2f * t);
+                    h = Terrain.TERRAIN_BASE + (h - Terrain.TERRAIN_BASE) * t;
+                }
+            }
+            out[base + i] = h;
+        }
+    }
+
+    /** Lattice value in [0, 1) from a SplitMix64 finaliser of seed and index. */
+    static float lattice(long seed, long index) {
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 40) * 0x1.0p-24f;
+    }
+}
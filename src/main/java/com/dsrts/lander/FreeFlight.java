@@ -0,0 +1,103 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.MassData;
+import com.badlogic.gdx.physics.box2d.Transform;
+
+/**
+ * The lander as a lone rigid body, integrated in Java while it is far from the ground.
+ * The step is Box2D's own for a body without contacts (b2Island::Solve): semi-implicit
+ * Euler on velocity, then position, with the same per-step translation and rotation
+ * limits, so a hand-off in either direction continues the same trajectory.
+ * While a LanderState's freeFlight is set, {@link Physics} reads and writes this
+ * instead of the Box2D body, and the World is not stepped at all.
+ */
+public class FreeFlight {
+    // b2_maxTranslation and b2_maxRotation from b2Settings.h
+    static final float MAX_TRANSLATION = 2f;
+    static final float MAX_ROTATION = 0.5f * MathUtils.PI;
+
+    public float x, y, angle;  // body origin (also its center of mass) and rotation in radians
+    public float vx, vy, w;    // m/s and rad/s
+    float cos = 1f, sin = 0f;  // of angle, as Box2D would have it in the body transform
+    float fx, fy, torque;      // accumulated until the next step
+    float mass, invMass, invI;
+    private boolean massChanged = false;
+
+    /** Takes over the body's state; call right after a world step, when no force is pending. */
+    void load(Body body) {
+        Vector2 p = body.getPosition();
+        x = p.x; y = p.y;
+        angle = body.getAngle();
+        float[] xf = body.getTransform().vals;
+        cos = xf[Transform.COS]; sin = xf[Transform.SIN];
+        Vector2 v = body.getLinearVelocity();
+        vx = v.x; vy = v.y;
+        w = body.getAngularVelocity();
+        mass = body.getMass();
+        invMass = mass > 0f ? 1f / mass : 0f;
+        float inertia = body.getInertia();
+        invI = inertia > 0f ? 1f / inertia : 0f;
+        fx = fy = torque = 0f;
+        massChanged = false;
+    }
+
+    /** Hands the state back to the body, mass included; forces still pending are carried over. */
+    void store(Body body, MassData scratch) {
+        if (massChanged) {
+            scratch.mass = mass;
+            scratch.center.set(0, 0);
+            scratch.I = 1f / invI;
+            body.setMassData(scratch);
+            massChanged = false;
+        }
+        body.setTransform(x, y, angle);
+        body.setLinearVelocity(vx, vy);
+        body.setAngularVelocity(w);
+        body.setAwake(true);
+        if (fx != 0f || fy != 0f) body.applyForceToCenter(fx, fy, true);
+        if (torque != 0f) body.applyTorque(torque, true);
+    }
+
+    void setMassData(float mass, float inertia) {
+        this.mass = mass;
+        invMass = 1f / mass;
+        invI = 1f / inertia;
+        massChanged = true;
+    }
+
+    /** As b2Body::ApplyForce: the force at world point (px, py). */
+    void applyForce(float forceX, float forceY, float px, float py) {
+        fx += forceX;
+        fy += forceY;
+        torque += (px - x) * forceY - (py - y) * forceX;
+    }
+
+    /** One step of h seconds under gravity (0, gravityY); clears the forces as World.step does. */
+    void step(float h, float gravityY) {
+        vx += h * (invMass * fx);
+        vy += h * (gravityY + invMass * fy);
+        w += h * invI * torque;
+
+        float tx = h * vx, ty = h * vy;
+        float translationSq = tx * tx + ty * ty;
+        if (translationSq > MAX_TRANSLATION * MAX_TRANSLATION) {
+            float ratio = MAX_TRANSLATION / (float)Math.sqrt(translationSq);
+            vx *= ratio;
+            vy *= ratio;
+        }
+        float rotation = h * w;
+        if (rotation * rotation > MAX_ROTATION * MAX_ROTATION) {
+            w *= MAX_ROTATION / Math.abs(rotation);
+        }
+
+        x += h * vx;
+        y += h * vy;
+        angle += h * w;
+        cos = (float)Math.cos(angle);
+        sin = (float)Math.sin(angle);
+        fx = fy = torque = 0f;
+    }
+}
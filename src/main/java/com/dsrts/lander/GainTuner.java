@@ -0,0 +1,228 @@
+package com.dsrts.lander;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless search for {@link FbwGains}. Every candidate flies the same scenario set
+ * under the {@link BatchRunner} autopilot; candidates are evaluated in parallel, one
+ * per worker at a time, and the search is an elitist evolution strategy with
+ * log-normal mutations that shrink each generation. All randomness is drawn on the
+ * main thread, so a seed gives the same result on any number of threads.
+ *
+ * Each descent-rate setpoint change is scored for settling time (until the error
+ * stays inside {@link #SETTLE_BAND}) and overshoot past the new setpoint; attitude
+ * tracking is scored as RMS error. Failed landings dominate the cost.
+ *
+ * Usage: GainTuner [--scenarios N] [--population N] [--generations N] [--threads N]
+ *                  [--seed N] [--max-steps N] [--start FILE] [--out FILE] [--quiet]
+ */
+public class GainTuner {
+    static final float SETTLE_BAND = 0.2f; // m/s either side of goalVy
+    static final int SETTLE_STEPS = 30;    // steps the error must stay in band
+
+    /** Metrics for one set of gains over the whole scenario set. */
+    public static class Score {
+        public int runs, landed;
+        public double settleSeconds;  // mean per setpoint change
+        public double overshoot;      // m/s, mean of each run's worst
+        public double fuelUsed;       // kg, mean per run
+        public double attitudeRms;    // degrees
+        public double cost;
+    }
+
+    public static Score evaluate(FbwGains gains, BatchRunner.Scenario[] scenarios, float[][] heights,
+                                 int[] padCenters, long maxSteps) {
+        Score score = new Score();
+        long changes = 0;
+        double settleSteps = 0, overshoot = 0, fuel = 0, angleSq = 0;
+        long angleSamples = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            BatchRunner.Scenario s = scenarios[i];
+            float[] h = heights[i];
+            Simulation sim = new Simulation(h, h.length * Terrain.SAMPLE_SPACING_M, padCenters, false);
+            try {
+                LanderState lander = sim.lander;
+                lander.gains = gains;
+                sim.place(s.x, s.y, s.vx, s.vy, s.angle);
+                lander.fuelMass = s.fuelMass;
+                lander.flyByWireMode = true;
+
+                float goal = Float.NaN;
+                long changeStep = 0;
+                float stepSign = 0;
+                int inBand = 0;
+                boolean settled = true;
+                float worstOver = 0;
+                while (lander.alive && !lander.landed && sim.steps < maxSteps) {
+                    BatchRunner.autopilot(sim, s);
+                    if (lander.goalVy != goal) {
+                        if (!settled) settleSteps += sim.steps - changeStep;
+                        goal = lander.goalVy;
+                        changeStep = sim.steps;
+                        stepSign = Math.signum(goal - lander.vy);
+                        inBand = 0;
+                        settled = false;
+                        changes++;
+                    }
+                    sim.step();
+
+                    float err = lander.goalVy - lander.vy;
+                    if (!settled) {
+                        if (Math.abs(err) < SETTLE_BAND) {
+                            if (++inBand >= SETTLE_STEPS) {
+                                settled = true;
+                                settleSteps += sim.steps - SETTLE_STEPS - changeStep;
+                            }
+                        } else {
+                            inBand = 0;
+                        }
+                    }
+                    worstOver = Math.max(worstOver, -stepSign * err); // error past the setpoint, against the step
+                    float angleErr = lander.goalAngle - lander.angle;
+                    angleSq += angleErr * angleErr;
+                    angleSamples++;
+                }
+                if (!settled) settleSteps += sim.steps - changeStep;
+
+                score.runs++;
+                if (lander.landed) score.landed++;
+                overshoot += worstOver;
+                fuel += s.fuelMass - lander.fuelMass;
+            } finally {
+                sim.dispose();
+            }
+        }
+        score.settleSeconds = changes > 0 ? settleSteps * Simulation.DT / changes : 0;
+        score.overshoot = overshoot / score.runs;
+        score.fuelUsed = fuel / score.runs;
+        score.attitudeRms = Math.sqrt(angleSq / Math.max(1, angleSamples));
+        double failRate = 1.0 - (double)score.landed / score.runs;
+        score.cost = 100 * failRate + score.settleSeconds + 2 * score.overshoot + 0.01 * score.fuelUsed + 0.1 * score.attitudeRms;
+        return score;
+    }
+
+    /** Multiplies each gain by exp(sigma * N(0,1)) and keeps it in a range the controller stays stable in. */
+    static float[] mutate(float[] parent, float sigma, Random rng) {
+        float[] child = parent.clone();
+        for (int i = 0; i < child.length; i++) {
+            child[i] *= (float)Math.exp(sigma * rng.nextGaussian());
+        }
+        child[5] = Math.min(child[5], 1f); // smoothing factors are per-step blend weights
+        child[6] = Math.min(child[6], 1f);
+        child[7] = Math.min(child[7], 30f); // damping * dt must stay well below 1
+        return child;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int scenarioCount = 24;
+        int population = 16;
+        int generations = 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1L;
+        long maxSteps = 60L * 60 * 2;
+        FbwGains start = FbwGains.DEFAULTS;
+        Path out = Paths.get("gains.properties");
+        boolean quiet = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--scenarios": scenarioCount = Integer.parseInt(args[++i]); break;
+                case "--population": population = Integer.parseInt(args[++i]); break;
+                case "--generations": generations = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--max-steps": maxSteps = Long.parseLong(args[++i]); break;
+                case "--start": start = FbwGains.load(Paths.get(args[++i])); break;
+                case "--out": out = Paths.get(args[++i]); break;
+                case "--quiet": quiet = true; break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Random rng = new Random(seed);
+        BatchRunner.Scenario[] scenarios = new BatchRunner.Scenario[scenarioCount];
+        float[][] heights = new float[scenarioCount][];
+        for (int i = 0; i < scenarioCount; i++) {
+            scenarios[i] = BatchRunner.Scenario.random(rng, Terrain.padCenters, Lander.WORLD_WIDTH_M);
+            heights[i] = new float[Terrain.terrainHeights.length];
+            Terrain.generateHeights(heights[i], scenarios[i].terrainSeed);
+        }
+
+        int elite = Math.max(1, population / 4);
+        float[][] vectors = new float[population][];
+        Score[] scores = new Score[population];
+        vectors[0] = start.toVector();
+        for (int i = 1; i < population; i++) vectors[i] = mutate(vectors[0], 0.3f, rng);
+
+        if (!quiet) System.out.println("generation,candidate,cost,landed,runs,settleSeconds,overshoot,fuelUsed,attitudeRms," + String.join(",", FbwGains.NAMES));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long startTime = System.nanoTime();
+        try {
+            for (int gen = 0; gen < generations; gen++) {
+                // Elites carry their score over; the rest are evaluated in parallel
+                List<Future<Score>> futures = new ArrayList<>();
+                for (int i = 0; i < population; i++) {
+                    if (scores[i] != null) { futures.add(null); continue; }
+                    FbwGains gains = FbwGains.fromVector(vectors[i]);
+                    long steps = maxSteps;
+                    futures.add(pool.submit(() -> evaluate(gains, scenarios, heights, Terrain.padCenters, steps)));
+                }
+                for (int i = 0; i < population; i++) {
+                    if (futures.get(i) != null) scores[i] = futures.get(i).get();
+                }
+
+                Score[] evaluated = scores;
+                Integer[] order = new Integer[population];
+                for (int i = 0; i < population; i++) order[i] = i;
+                Arrays.sort(order, Comparator.comparingDouble(i -> evaluated[i].cost));
+                if (!quiet) {
+                    for (int i : order) System.out.println(gen + "," + i + "," + csv(scores[i], vectors[i]));
+                }
+                Score best = scores[order[0]];
+                System.err.printf("gen %d: best cost %.3f landed %d/%d settle %.2f s overshoot %.2f m/s fuel %.0f kg att %.2f deg (%.0f s)%n",
+                        gen, best.cost, best.landed, best.runs, best.settleSeconds, best.overshoot, best.fuelUsed,
+                        best.attitudeRms, (System.nanoTime() - startTime) / 1e9);
+
+                // Next generation: the elites unchanged, then children of random elites
+                float sigma = Math.max(0.05f, 0.3f * (float)Math.pow(0.85, gen + 1));
+                float[][] nextVectors = new float[population][];
+                Score[] nextScores = new Score[population];
+                for (int i = 0; i < elite; i++) {
+                    nextVectors[i] = vectors[order[i]];
+                    nextScores[i] = scores[order[i]];
+                }
+                for (int i = elite; i < population; i++) {
+                    nextVectors[i] = mutate(nextVectors[rng.nextInt(elite)], sigma, rng);
+                }
+                vectors = nextVectors;
+                scores = nextScores;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Elites are sorted first, so slot 0 is the best evaluated candidate
+        FbwGains best = FbwGains.fromVector(vectors[0]);
+        Score s = scores[0];
+        best.save(out, String.format("GainTuner seed=%d scenarios=%d cost=%.3f landed=%d/%d settle=%.2fs overshoot=%.2fm/s fuel=%.0fkg",
+                seed, scenarioCount, s.cost, s.landed, s.runs, s.settleSeconds, s.overshoot, s.fuelUsed));
+        System.err.println("wrote " + out + ": " + best);
+    }
+
+    private static String csv(Score s, float[] v) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.cost).append(',').append(s.landed).append(',').append(s.runs).append(',')
+                .append(s.settleSeconds).append(',').append(s.overshoot).append(',')
+                .append(s.fuelUsed).append(',').append(s.attitudeRms);
+        for (float x : v) sb.append(',').append(x);
+        return sb.toString();
+    }
+}
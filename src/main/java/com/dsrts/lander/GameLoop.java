@@ -0,0 +1,50 @@
+package com.dsrts.lander;
+
+/**
+ * Fixed-timestep accumulator for the render loop. Each frame adds its elapsed time
+ * and gets back how many physics steps to run. The step count is capped per frame:
+ * time beyond the cap is thrown away, so after a hitch the game briefly runs slower
+ * (time dilation) instead of spiralling into ever longer catch-up frames.
+ * {@link #alpha()} is the leftover fraction of a step, used to interpolate rendering.
+ */
+public class GameLoop {
+    public static final int DEFAULT_MAX_STEPS = 5;
+
+    public final double dt;
+    public final int maxStepsPerFrame;
+
+    private double accumulator = 0.0;
+
+    // Counters since start
+    public long frames = 0;
+    public long steps = 0;
+    public long clampedFrames = 0; // frames that hit maxStepsPerFrame
+    public long droppedSteps = 0;  // steps discarded by the clamp
+
+    public GameLoop(double dt, int maxStepsPerFrame) {
+        this.dt = dt;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /** Adds one frame's elapsed seconds; returns the number of steps to run now. */
+    public int advance(double frameTime) {
+        frames++;
+        accumulator += Math.max(0.0, frameTime);
+        // Tolerance so frame times that are exact multiples of dt are not lost to rounding
+        long due = (long)(accumulator / dt + 1e-6);
+        if (due > maxStepsPerFrame) {
+            clampedFrames++;
+            droppedSteps += due - maxStepsPerFrame;
+            accumulator -= (due - maxStepsPerFrame) * dt;
+            due = maxStepsPerFrame;
+        }
+        accumulator = Math.max(0.0, accumulator - due * dt);
+        steps += due;
+        return (int)due;
+    }
+
+    /** How far the current time is past the last step, in [0, 1). */
+    public float alpha() {
+        return (float)Math.min(accumulator / dt, 1.0);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dsrts.lander;
+
+/**
+ * Terrain height samples, in meters, at x = i * spacing: a plain array for generated
+ * maps, or a {@link MapFile} read straight out of a memory-mapped file.
+ *
+ * A field may also carry a min/max summary over fixed blocks of samples, so a
+ * {@link TerrainIndex} can be built without reading every sample; a mapped map of
+ * hundreds of millions of samples then only pages in what is actually queried.
+ */
+public interface HeightField {
+    int samples();
+
+    float height(int i);
+
+    /** Samples per summary block, or 0 when there is no summary and an index has to scan. */
+    default int summaryBlock() {
+        return 0;
+    }
+
+    /** Lowest sample of block b; only when {@link #summaryBlock()} is non-zero. */
+    default float blockMin(int b) {
+        throw new UnsupportedOperationException("No summary");
+    }
+
+    default float blockMax(int b) {
+        throw new UnsupportedOperationException("No summary");
+    }
+
+    static HeightField of(float[] heights) {
+        return new HeightField() {
+            @Override
+            public int samples() {
+                return heights.length;
+            }
+
+            @Override
+            public float height(int i) {
+                return heights[i];
+            }
+        };
+    }
+}
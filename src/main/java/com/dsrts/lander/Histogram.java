@@ -0,0 +1,98 @@
+package com.dsrts.lander;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory log-linear histogram of non-negative longs (typically nanoseconds).
+ * Each power of two is split into 32 linear sub-buckets, so any recorded value is
+ * reported within about 3% while the whole range up to 2^40 fits in ~1200 counters.
+ * Recording is a few integer ops and never allocates. Not thread-safe.
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 40 - SUB_BITS;
+
+    private final long[] counts = new long[(MAX_SHIFT + 2) * SUB];
+    private long total = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        total++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /** Makes this an exact copy of other, for handing a histogram to another thread. */
+    public void copyFrom(Histogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        total = other.total;
+        sum = other.sum;
+        min = other.min;
+        max = other.max;
+    }
+
+    public long count() { return total; }
+
+    public long max() { return max; }
+
+    public long min() { return total == 0 ? 0 : min; }
+
+    public double mean() { return total == 0 ? 0 : (double)sum / total; }
+
+    /** Value at or below which the given fraction (0..1) of recordings fall; 0 when empty. */
+    public long percentile(double fraction) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long)Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB) return (int)value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        if (shift > MAX_SHIFT) return (MAX_SHIFT + 2) * SUB - 1;
+        return shift * SUB + (int)(value >>> shift);
+    }
+
+    static long lowerBound(int index) {
+        if (index < 2 * SUB) return index;
+        int shift = index / SUB - 1;
+        return (long)(index - shift * SUB) << shift;
+    }
+
+    static long upperBound(int index) {
+        return index + 1 < (MAX_SHIFT + 2) * SUB ? lowerBound(index + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /** Appends count, mean, min, max and p50/p90/p99/p999 as a JSON object. */
+    public StringBuilder appendJson(StringBuilder out) {
+        out.append("{\"count\":").append(total)
+                .append(",\"mean\":").append(mean())
+                .append(",\"min\":").append(min())
+                .append(",\"max\":").append(max)
+                .append(",\"p50\":").append(percentile(0.5))
+                .append(",\"p90\":").append(percentile(0.9))
+                .append(",\"p99\":").append(percentile(0.99))
+                .append(",\"p999\":").append(percentile(0.999))
+                .append('}');
+        return out;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dsrts.lander;
+
+/**
+ * Fixed-point number formatting for the HUD into reusable StringBuilders.
+ * Matches String.format("%[+]W.Df") for the ranges the HUD shows, without
+ * creating a Formatter, boxing the argument or building a new String.
+ */
+public class HudFormat {
+    private static final double[] POW10 = {1, 10, 100, 1000, 10000};
+
+    /** The value as it will be displayed with the given decimals; equal keys render identically. */
+    public static long quantize(float value, int decimals) {
+        long q = Math.round(Math.abs((double)value) * POW10[decimals]);
+        return isNegative(value) ? -q - 1 : q; // keep -0.0 distinct from 0.0, as the text is
+    }
+
+    /** Appends value right-aligned in width chars with the given decimals, like %[+]W.Df. */
+    public static StringBuilder appendFixed(StringBuilder out, float value, int width, int decimals, boolean plus) {
+        long q = Math.round(Math.abs((double)value) * POW10[decimals]);
+        long scale = (long)POW10[decimals];
+        long whole = q / scale;
+        long frac = q % scale;
+
+        char sign = isNegative(value) ? '-' : (plus ? '+' : 0);
+        int len = (sign != 0 ? 1 : 0) + digits(whole) + (decimals > 0 ? decimals + 1 : 0);
+        for (int i = len; i < width; i++) out.append(' ');
+
+        if (sign != 0) out.append(sign);
+        out.append(whole);
+        if (decimals > 0) {
+            out.append('.');
+            for (long d = scale / 10; d > 0; d /= 10) {
+                out.append((char)('0' + (frac / d) % 10));
+            }
+        }
+        return out;
+    }
+
+    private static boolean isNegative(float value) {
+        return value < 0 || Float.floatToRawIntBits(value) == 0x80000000;
+    }
+
+    private static int digits(long v) {
+        int n = 1;
+        while (v >= 10) { v /= 10; n++; }
+        return n;
+    }
+}
@@ -5,19 +5,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
-import com.badlogic.gdx.physics.box2d.BodyDef;
-import com.badlogic.gdx.physics.box2d.Contact;
-import com.badlogic.gdx.physics.box2d.ContactImpulse;
-import com.badlogic.gdx.physics.box2d.ContactListener;
-import com.badlogic.gdx.physics.box2d.FixtureDef;
-import com.badlogic.gdx.physics.box2d.Manifold;
-import com.badlogic.gdx.physics.box2d.PolygonShape;
-import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.ScreenUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 public class Lander extends ApplicationAdapter {
     // --- METRIC SCALE CONSTANTS ---
@@ -31,161 +25,166 @@ public class Lander extends ApplicationAdapter {
     static final float LANDER_HALF_W = LANDER_WIDTH_M / 2;
     static final float LANDER_HALF_H = LANDER_HEIGHT_M / 2;
 
+    private final long seed;
+    private final Path recordPath; // null to not record
+    private final FlightLog replay; // null to fly from the keyboard
+    private final Path telemetryPath; // null for no telemetry
+    private final Path perfPath; // perf JSON written here on exit, or null
+    private final FbwGains gains;
+    private final boolean threaded; // step physics on a SimulationThread instead of in render()
+    private final Startup startup; // terrain, world, stars and font, prepared while the window opens
+
+    private Simulation simulation;
     private LanderState lander;
     private Render renderer;
-    private World world;
-    private double accumulator = 0.0;
-    private final double dt = 1.0 / 60.0;
+    private FlightRecorder recorder;
+    private Telemetry telemetry;
+    private SimulationThread simThread; // null when physics runs on the render thread
+    private final GameLoop loop = new GameLoop(Simulation.DT, GameLoop.DEFAULT_MAX_STEPS);
+    private final PerfStats perf = new PerfStats();
+    private int pendingPresses = 0; // key presses waiting for the next physics tick
+    private Planner planner; // non-null while the landing planner (P) is on
+    private float planTimer = 0f;
+    static final float PLAN_INTERVAL = 0.3f; // seconds between re-plans
 
-    @Override
-    public void create() {
-        // Initialize Box2D World with Moon Gravity
-        world = new World(new Vector2(0, -1.62f), true);
-        
-        Terrain.generateTerrain(world, WORLD_WIDTH_M);
-        
-        lander = new LanderState(Terrain.terrainHeights, WORLD_WIDTH_M, WORLD_HEIGHT_M, LANDER_WIDTH_M,
-                LANDER_HEIGHT_M, LANDER_HALF_W, LANDER_HALF_H);
-        
-        // Create Lander Body
-        lander.body = createLanderBody(world, lander.x, lander.y, lander.angle);
-        
-        setupContactListener();
-        
-        renderer = new Render();
-        renderer.init(this);
+    public Lander(long seed, Path recordPath, FlightLog replay, Path telemetryPath, Path perfPath, FbwGains gains,
+                  boolean threaded) {
+        this.seed = replay != null ? replay.seed : seed;
+        this.recordPath = replay != null ? null : recordPath;
+        this.replay = replay;
+        this.telemetryPath = telemetryPath;
+        this.perfPath = perfPath;
+        this.gains = replay != null ? replay.gains : gains;
+        this.threaded = threaded;
+        startup = new Startup(this.seed);
     }
 
-    private void setupContactListener() {
-        world.setContactListener(new ContactListener() {
-            @Override
-            public void beginContact(Contact contact) {
-                boolean isLander = contact.getFixtureA().getBody() == lander.body || contact.getFixtureB().getBody() == lander.body;
-                if (!isLander) return;
-
-                Object dataA = contact.getFixtureA().getUserData();
-                Object dataB = contact.getFixtureB().getUserData();
-                boolean hitPad = "pad".equals(dataA) || "pad".equals(dataB);
-                boolean hitTerrain = "terrain".equals(dataA) || "terrain".equals(dataB);
-
-                if (hitTerrain || hitPad) {
-                    // Check landing criteria
-                    float vel = lander.body.getLinearVelocity().len();
-                    float ang = Math.abs(lander.angle);
-                    
-                    if (hitPad && vel < 2.0f && ang < 10.0f) {
-                        lander.landed = true;
-                    } else if (!lander.landed) {
-                        lander.alive = false;
-                    }
-                }
-            }
-
-            @Override public void endContact(Contact contact) {
-                if (contact.getFixtureA().getBody() == lander.body || contact.getFixtureB().getBody() == lander.body) {
-                    if (lander.body.getLinearVelocity().y > 0.1f) {
-                        lander.landed = false;
-                    }
-                }
-            }
-            @Override public void preSolve(Contact contact, Manifold oldManifold) {}
-            @Override public void postSolve(Contact contact, ContactImpulse impulse) {}
-        });
+    public long getSeed() {
+        return seed;
     }
 
-    private Body createLanderBody(World world, float x, float y, float angle) {
-        BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.DynamicBody;
-        bodyDef.position.set(x, y);
-        bodyDef.angle = angle * MathUtils.degreesToRadians;
-        bodyDef.linearDamping = 0.0f;
-        bodyDef.angularDamping = 0.0f; 
-
-        Body body = world.createBody(bodyDef);
-
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(LANDER_HALF_W, LANDER_HALF_H);
-
-        FixtureDef fixtureDef = new FixtureDef();
-        fixtureDef.shape = shape;
-        fixtureDef.density = 1.0f; 
-        fixtureDef.friction = 0.5f;
-        fixtureDef.restitution = 0.1f;
-
-        body.createFixture(fixtureDef);
-        shape.dispose();
+    public TerrainIndex getTerrain() {
+        return simulation.terrain;
+    }
 
-        return body;
+    @Override
+    public void create() {
+        startup.createStartNanos = System.nanoTime();
+        simulation = startup.join(startup.simulation);
+        lander = simulation.lander;
+        lander.gains = gains;
+        simulation.perf = perf;
+        if (recordPath != null) {
+            recorder = FlightRecorder.open(recordPath, seed, gains);
+            simulation.recorder = recorder;
+        }
+        if (telemetryPath != null) {
+            try {
+                telemetry = new Telemetry(telemetryPath);
+                simulation.telemetry = telemetry;
+            } catch (IOException e) {
+                Gdx.app.error("Lander", "Telemetry disabled, cannot open " + telemetryPath, e);
+            }
+        }
+        
+        renderer = new Render();
+        FontCache.Atlas font = startup.join(startup.font);
+        Gdx.app.log("Lander", "Font " + (font.fromCache ? "loaded from cache" : "rasterized and cached")
+                + " in " + font.prepareNanos / 1_000_000 + " ms");
+        renderer.init(this, FontCache.upload(font), startup.join(startup.stars));
+        if (threaded) {
+            // Step timings arrive as copies in the snapshots; only the loop's clamp and drop
+            // counters are read across threads, where a racy read can misreport them for a frame
+            simThread = new SimulationThread(simulation, replay, GameLoop.DEFAULT_MAX_STEPS);
+            renderer.setPerf(perf, simThread.loop);
+            simThread.start();
+        } else {
+            renderer.setPerf(perf, loop);
+        }
+        startup.createEndNanos = System.nanoTime();
     }
 
     @Override
     public void render() {
+        perf.beginFrame(System.nanoTime());
+
         // --- Input Polling ---
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
             Gdx.app.exit();
         }
-
-        lander.up = Gdx.input.isKeyPressed(Input.Keys.UP);
-        lander.down = Gdx.input.isKeyPressed(Input.Keys.DOWN);
-        lander.left = Gdx.input.isKeyPressed(Input.Keys.LEFT);
-        lander.right = Gdx.input.isKeyPressed(Input.Keys.RIGHT);
-        lander.space = Gdx.input.isKeyPressed(Input.Keys.SPACE);
-
-        // Toggle fly-by-wire mode with A key (on key press, edge detection)
-        float GOAL_INCREMENT = 0.5f; // Incremented per tap
-        float ANGLE_INCREMENT = 5.0f; // Degrees per tap
-
-        if (Gdx.input.isKeyJustPressed(Input.Keys.A)) {
-            lander.flyByWireMode = !lander.flyByWireMode;
-            if (lander.flyByWireMode) {
-                // Sync goals to actual state when turning FBW ON
-                float currentVy = lander.vy;
-                if (Math.abs(currentVy) <= 0.5f) {
-                    lander.goalVy = Math.round(currentVy * 10f) / 10.0f;
-                } else {
-                    lander.goalVy = Math.round(currentVy * 2f) / 2.0f;
-                }
-                lander.goalAngle = (float)(Math.floor(lander.angle / ANGLE_INCREMENT) * ANGLE_INCREMENT);
-            }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            renderer.togglePerfOverlay();
         }
-
-        if (lander.flyByWireMode) {
-            if (Gdx.input.isKeyJustPressed(Input.Keys.UP)) {
-                float vyInc = (lander.goalVy >= -0.49f && lander.goalVy < 0.5f) ? 0.1f : 0.5f;
-                lander.goalVy += vyInc;
-            }
-            if (Gdx.input.isKeyJustPressed(Input.Keys.DOWN)) {
-                float vyInc = (lander.goalVy > -0.5f && lander.goalVy <= 0.49f) ? 0.1f : 0.5f;
-                lander.goalVy -= vyInc;
-            }
-            if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) lander.goalAngle += ANGLE_INCREMENT;
-            if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) lander.goalAngle -= ANGLE_INCREMENT;
-        } else {
-            // Manual mode: keep goals updated
-            lander.goalVx = lander.vx;
-            lander.goalVy = lander.vy;
-            lander.goalAngle = lander.angle;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.P)) {
+            togglePlanner();
         }
 
+        int input = replay == null ? Controls.poll() : 0;
+
         // --- Physics (Fixed Timestep) ---
-        accumulator += Gdx.graphics.getDeltaTime();
-        while (accumulator >= dt) {
-            if (lander.alive) {
-                // Step Box2D World
-                world.step((float)dt, 6, 2);
-                
-                if (lander.flyByWireMode) {
-                    Physics.flybywire(lander, dt);
+        LanderState view;
+        float alpha;
+        if (simThread != null) {
+            // The sim thread steps on its own clock; draw its newest tick, interpolated to now
+            if (replay == null) simThread.offerInput(input);
+            SimulationThread.Snapshot snapshot = simThread.latest();
+            view = snapshot.state;
+            copySimulationStats(snapshot);
+            alpha = MathUtils.clamp((float)((System.nanoTime() - snapshot.tickNanos) / (Simulation.DT * 1e9)), 0f, 1f);
+        } else {
+            // Held keys are sampled per frame; presses are kept until a tick consumes them
+            pendingPresses |= input & ~Controls.HELD_MASK;
+            int steps = loop.advance(Gdx.graphics.getDeltaTime());
+            perf.stepsPerFrame.record(steps);
+            for (int i = 0; i < steps; i++) {
+                if (replay != null) {
+                    simulation.step(replay.hasNext() ? replay.next() : 0);
                 } else {
-                    Physics.advance(lander, dt);
+                    simulation.step((input & Controls.HELD_MASK) | pendingPresses);
+                    pendingPresses = 0;
                 }
             }
-            accumulator -= dt;
+            view = lander;
+            alpha = loop.alpha();
+        }
+
+        // Re-plan from the latest state once the previous search has finished
+        if (planner != null && view.alive && !view.landed) {
+            planTimer += Gdx.graphics.getDeltaTime();
+            if (planTimer >= PLAN_INTERVAL && !planner.busy()) {
+                planTimer = 0f;
+                planner.request(view);
+            }
         }
 
         // --- Render ---
+        long renderStart = System.nanoTime();
         ScreenUtils.clear(0.05f, 0.05f, 0.08f, 1.0f);
-        renderer.render(lander);
+        renderer.render(view, alpha);
+        long renderEnd = System.nanoTime();
+        perf.renderNanos.record(renderEnd - renderStart);
+        if (perf.firstFrameNanos < 0) {
+            perf.firstFrameNanos = renderEnd - startup.launchNanos;
+            Gdx.app.log("Lander", startup.report(renderEnd));
+        }
+    }
+
+    /** Shows the sim thread's timings, as of the snapshot being drawn, in the overlay and JSON. */
+    private void copySimulationStats(SimulationThread.Snapshot snapshot) {
+        perf.worldStepNanos.copyFrom(snapshot.worldStepNanos);
+        perf.controllerNanos.copyFrom(snapshot.controllerNanos);
+        perf.stepsPerFrame.copyFrom(snapshot.stepsPerWake);
+    }
+
+    private void togglePlanner() {
+        if (planner == null) {
+            planner = new Planner(Terrain.terrainHeights, WORLD_WIDTH_M, Terrain.padCenters);
+            planTimer = PLAN_INTERVAL; // plan on the next frame
+        } else {
+            planner.shutdown();
+            planner = null;
+        }
+        renderer.setPlanner(planner);
     }
 
     @Override
@@ -195,16 +194,79 @@ public class Lander extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        GameLoop loop = this.loop;
+        if (simThread != null) {
+            simThread.stop(); // the recorder, telemetry and world are only safe to close once it has
+            copySimulationStats(simThread.latest()); // its last snapshot has every tick
+            loop = simThread.loop;
+        }
+        Gdx.app.log("Lander", "Frames " + loop.frames + ", steps " + loop.steps
+                + ", clamped frames " + loop.clampedFrames + ", dropped steps " + loop.droppedSteps);
+        if (perfPath != null) {
+            try {
+                perf.writeJson(perfPath, loop);
+            } catch (IOException e) {
+                Gdx.app.error("Lander", "Could not write " + perfPath, e);
+            }
+        }
+        if (planner != null) planner.shutdown();
         renderer.dispose();
-        if (world != null) world.dispose();
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                Gdx.app.error("Lander", "Could not finish flight log " + recordPath, e);
+            }
+        }
+        if (telemetry != null) {
+            try {
+                telemetry.close();
+                if (telemetry.dropped() > 0) Gdx.app.log("Lander", "Telemetry dropped " + telemetry.dropped() + " ticks");
+            } catch (IOException e) {
+                Gdx.app.error("Lander", "Could not finish telemetry " + telemetryPath, e);
+            }
+        }
+        if (simulation != null) simulation.dispose();
     }
 
-    public static void main(String[] args) {
+    /**
+     * Options: --seed N, --record FILE, --no-record, --replay FILE, --telemetry FILE,
+     * --perf-json FILE, --fps N (0 = uncapped), --no-vsync, --gains FILE (from GainTuner),
+     * --sim-thread (step physics on its own thread).
+     * Flights are recorded to flights/ by default; --replay flies with the recorded gains.
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = System.nanoTime();
+        Path recordPath = Paths.get("flights", "flight-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + FlightReplay.EXTENSION);
+        FlightLog replay = null;
+        Path telemetryPath = null;
+        Path perfPath = null;
+        int fps = 0; // rendering is interpolated, so frames need not match the 60 Hz physics rate
+        boolean vsync = true;
+        FbwGains gains = FbwGains.DEFAULTS;
+        boolean threaded = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--record": recordPath = Paths.get(args[++i]); break;
+                case "--no-record": recordPath = null; break;
+                case "--replay": replay = FlightLog.open(Paths.get(args[++i])); break;
+                case "--telemetry": telemetryPath = Paths.get(args[++i]); break;
+                case "--perf-json": perfPath = Paths.get(args[++i]); break;
+                case "--fps": fps = Integer.parseInt(args[++i]); break;
+                case "--no-vsync": vsync = false; break;
+                case "--gains": gains = FbwGains.load(Paths.get(args[++i])); break;
+                case "--sim-thread": threaded = true; break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
         Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
         config.setTitle("Lander - LibGDX Port");
         config.setWindowedMode(SCREEN_WIDTH, SCREEN_HEIGHT);
-        config.useVsync(true);
-        config.setForegroundFPS(60);
-        new Lwjgl3Application(new Lander(), config);
+        config.useVsync(vsync);
+        config.setForegroundFPS(fps);
+        new Lwjgl3Application(new Lander(seed, recordPath, replay, telemetryPath, perfPath, gains, threaded), config);
     }
 }
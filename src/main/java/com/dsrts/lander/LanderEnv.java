@@ -0,0 +1,123 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import java.nio.FloatBuffer;
+
+/**
+ * One learning environment over a {@link Simulation}: engine throttles in, an
+ * observation, a shaped reward and a done code out. Shared by {@link VecEnv} and
+ * the sessions of {@link SimServer}, so both score and terminate episodes the same way.
+ *
+ * Observations follow the OBS_* layout. The reward is the change in a shaping
+ * potential (closer to a pad, slower, more upright), minus a fuel cost, plus a
+ * terminal bonus or penalty.
+ */
+public class LanderEnv {
+    public static final int ACTION_SIZE = 2;
+
+    public static final int OBS_PAD_DX = 0;    // m from the nearest pad center, positive when right of it
+    public static final int OBS_ALTITUDE = 1;  // m from the lander's bottom to the highest ground under it
+    public static final int OBS_VX = 2;        // m/s
+    public static final int OBS_VY = 3;        // m/s
+    public static final int OBS_SIN = 4;       // of the tilt, so the angle never wraps
+    public static final int OBS_COS = 5;
+    public static final int OBS_OMEGA = 6;     // rad/s
+    public static final int OBS_FUEL = 7;      // fraction of a full tank
+    public static final int OBS_SIZE = 8;
+
+    public static final byte DONE_RUNNING = 0;
+    public static final byte DONE_LANDED = 1;
+    public static final byte DONE_CRASHED = 2; // crashed or left the map
+    public static final byte DONE_TIMEOUT = 3;
+
+    static final float LANDING_REWARD = 10f;
+    static final float CRASH_REWARD = -10f;
+    static final float FUEL_COST = 0.001f; // per kg burned
+
+    public final Simulation simulation;
+    public final float[] terrainHeights;
+    public float reward;   // of the last step
+    public byte done = DONE_RUNNING;
+
+    private final LanderState start; // scratch start state
+    private float potential;         // shaping potential of the current state
+
+    /**
+     * @param chunked stream the terrain into Box2D around the lander, which keeps the
+     *                native world small when many environments are alive at once
+     */
+    public LanderEnv(float[] terrainHeights, boolean chunked) {
+        this.terrainHeights = terrainHeights;
+        simulation = new Simulation(terrainHeights, Lander.WORLD_WIDTH_M, Terrain.padCenters, chunked);
+        start = new LanderState(terrainHeights, Lander.WORLD_WIDTH_M, Lander.WORLD_HEIGHT_M, Lander.LANDER_WIDTH_M,
+                Lander.LANDER_HEIGHT_M, Lander.LANDER_HALF_W, Lander.LANDER_HALF_H);
+    }
+
+    /** Starts a new episode from the scenario's start state and writes its observation at offset. */
+    public void reset(BatchRunner.Scenario s, FloatBuffer obs, int offset) {
+        start.x = s.x; start.y = s.y;
+        start.vx = s.vx; start.vy = s.vy;
+        start.angle = s.angle;
+        start.rotCos = MathUtils.cosDeg(s.angle);
+        start.rotSin = MathUtils.sinDeg(s.angle);
+        start.prevX = s.x; start.prevY = s.y; start.prevAngle = s.angle;
+        start.prevVy = s.vy;
+        start.fuelMass = s.fuelMass;
+        start.throttleLeft = 0f;
+        start.throttleRight = 0f;
+        simulation.reset(start);
+        reward = 0f;
+        done = DONE_RUNNING;
+        potential = observe(obs, offset);
+    }
+
+    /**
+     * Advances one tick with the throttles through {@link Simulation#step(float, float)} and
+     * writes the observation at offset; returns the done code, also left in {@link #done}.
+     */
+    public byte step(float throttleLeft, float throttleRight, long maxEpisodeSteps, FloatBuffer obs, int offset) {
+        Simulation sim = simulation;
+        LanderState lander = sim.lander;
+        float fuel = lander.fuelMass;
+        sim.step(throttleLeft, throttleRight);
+
+        float next = observe(obs, offset);
+        reward = next - potential - FUEL_COST * (fuel - lander.fuelMass);
+        potential = next;
+
+        done = DONE_RUNNING;
+        if (lander.landed) {
+            done = DONE_LANDED;
+            reward += LANDING_REWARD;
+        } else if (!lander.alive || lander.x < 0f || lander.x > sim.worldWidth || lander.y > 2 * Lander.WORLD_HEIGHT_M) {
+            done = DONE_CRASHED;
+            reward += CRASH_REWARD;
+        } else if (sim.steps >= maxEpisodeSteps) {
+            done = DONE_TIMEOUT;
+        }
+        return done;
+    }
+
+    /** Writes the current observation at offset and returns the shaping potential of the same state. */
+    public float observe(FloatBuffer out, int offset) {
+        LanderState lander = simulation.lander;
+        TerrainIndex terrain = simulation.terrain;
+        float dx = lander.x - terrain.padX(terrain.nearestPad(lander.x));
+        float altitude = terrain.radarAltitude(lander.x, lander.y - Lander.LANDER_HALF_H, Lander.LANDER_HALF_W);
+        float angle = lander.angle * MathUtils.degreesToRadians;
+        out.put(offset + OBS_PAD_DX, dx);
+        out.put(offset + OBS_ALTITUDE, altitude);
+        out.put(offset + OBS_VX, lander.vx);
+        out.put(offset + OBS_VY, lander.vy);
+        out.put(offset + OBS_SIN, MathUtils.sin(angle));
+        out.put(offset + OBS_COS, MathUtils.cos(angle));
+        out.put(offset + OBS_OMEGA, lander.omega * MathUtils.degreesToRadians);
+        out.put(offset + OBS_FUEL, lander.fuelMass / LanderState.TOTAL_FUEL_MASS);
+        float speed = (float)Math.sqrt(lander.vx * lander.vx + lander.vy * lander.vy);
+        return -(Math.abs(dx) / 50f + Math.max(0f, altitude) / 100f + speed / 5f + Math.abs(angle));
+    }
+
+    public void dispose() {
+        simulation.dispose();
+    }
+}
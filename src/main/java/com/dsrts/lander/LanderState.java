@@ -1,6 +1,7 @@
 package com.dsrts.lander;
 
 import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.MassData;
 
 public class LanderState {
     public Body body; // Box2D body
@@ -15,8 +16,10 @@ public class LanderState {
     public float goalVx = 0, goalVy = 0; // m/s, for fly-by-wire mode
     public float goalAngle = 0;          // degrees, for FBW attitude hold
     public boolean flyByWireMode = false; // toggled by A key
+    public FbwGains gains = FbwGains.DEFAULTS;
     public float angle = 0;       // degrees
     public float omega = 0;       // degrees/s (angular velocity)
+    public float prevX, prevY, prevAngle; // pose before the last step, for render interpolation
     
     // --- Tunable start state ---
     public static final float INITIAL_DESCENT_RATE = -4.0f; // m/s (downward)
@@ -46,8 +49,20 @@ public class LanderState {
 
     public boolean alive = true;
     public boolean landed = false;
+    public float touchdownSpeed = -1f; // m/s at first ground contact, -1 until then
+
+    // Scratch for Physics.applyForces so the tick does not allocate
+    final MassData massData = new MassData();
+    float appliedMass = -1f; // mass last sent to the body, kg
+    float rotCos = 1f, rotSin = 0f; // body rotation at the last sync
+    boolean thrustPending = false;  // engine forces applied since the last world step
+    FreeFlight freeFlight;          // set while the lander is integrated outside Box2D
 
     public LanderState(float[] terrainHeights, float WORLD_WIDTH_M, float WORLD_HEIGHT_M, float LANDER_WIDTH_M, float LANDER_HEIGHT_M, float LANDER_HALF_W, float LANDER_HALF_H) {
+        this(HeightField.of(terrainHeights), WORLD_WIDTH_M, WORLD_HEIGHT_M, LANDER_WIDTH_M, LANDER_HEIGHT_M, LANDER_HALF_W, LANDER_HALF_H);
+    }
+
+    public LanderState(HeightField terrainHeights, float WORLD_WIDTH_M, float WORLD_HEIGHT_M, float LANDER_WIDTH_M, float LANDER_HEIGHT_M, float LANDER_HALF_W, float LANDER_HALF_H) {
         this.fuelMass = 1500f; 
         
         this.vy = INITIAL_DESCENT_RATE;
@@ -55,13 +70,7 @@ public class LanderState {
 
         // Start in middle of terrain
         x = WORLD_WIDTH_M / 2f;
-        // Terrain sample index for x
-        float terrainSample = x / (WORLD_WIDTH_M / terrainHeights.length);
-        int tx = Math.round(terrainSample);
-        float terrainY = 0;
-        if (tx >= 0 && tx < terrainHeights.length) {
-            terrainY = terrainHeights[tx]; // meters above bottom
-        }
+        float terrainY = TerrainIndex.heightAt(terrainHeights, WORLD_WIDTH_M, x); // meters above bottom
         // Set Y position 10 meters from top of world
         y = WORLD_HEIGHT_M - 10;
         // Make sure we're not too close to terrain
@@ -73,10 +82,36 @@ public class LanderState {
         if (y > WORLD_HEIGHT_M - LANDER_HALF_H) {
             y = WORLD_HEIGHT_M - LANDER_HALF_H;
         }
+        prevX = x;
+        prevY = y;
+        prevAngle = angle;
     }
 
     public float getTotalMass() { return DRY_MASS + fuelMass + cargoMass; }
 
+    /** Copies every flight and controller field from other; the body and Box2D scratch are left alone. */
+    public void copyFrom(LanderState other) {
+        up = other.up; down = other.down; left = other.left; right = other.right; space = other.space;
+        x = other.x; y = other.y;
+        vx = other.vx; vy = other.vy;
+        goalVx = other.goalVx; goalVy = other.goalVy; goalAngle = other.goalAngle;
+        flyByWireMode = other.flyByWireMode;
+        gains = other.gains;
+        angle = other.angle; omega = other.omega;
+        prevX = other.prevX; prevY = other.prevY; prevAngle = other.prevAngle;
+        prevVy = other.prevVy; verticalAccel = other.verticalAccel;
+        integralVyError = other.integralVyError;
+        derivativeVyError = other.derivativeVyError;
+        filteredVyError = other.filteredVyError;
+        smoothedVerticalAccel = other.smoothedVerticalAccel;
+        smoothedThrottle = other.smoothedThrottle;
+        fuelMass = other.fuelMass; cargoMass = other.cargoMass;
+        throttle = other.throttle; throttleLeft = other.throttleLeft; throttleRight = other.throttleRight;
+        alive = other.alive; landed = other.landed;
+        touchdownSpeed = other.touchdownSpeed;
+        rotCos = other.rotCos; rotSin = other.rotSin;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("LanderState{");
@@ -0,0 +1,59 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.Manifold;
+
+/**
+ * Landing and crash rules for any number of landers in one world. Lander fixtures
+ * carry their {@link LanderState} as userData and terrain fixtures carry "terrain"
+ * or "pad", so a contact is resolved without searching or comparing bodies.
+ */
+public class LandingContacts implements ContactListener {
+    @Override
+    public void beginContact(Contact contact) {
+        Fixture fixtureA = contact.getFixtureA();
+        Fixture fixtureB = contact.getFixtureB();
+        LanderState lander = landerOf(fixtureA, fixtureB);
+        if (lander == null) return;
+
+        Object dataA = fixtureA.getUserData();
+        Object dataB = fixtureB.getUserData();
+        boolean hitPad = "pad".equals(dataA) || "pad".equals(dataB);
+        boolean hitTerrain = "terrain".equals(dataA) || "terrain".equals(dataB);
+
+        if (hitTerrain || hitPad) {
+            // Check landing criteria
+            float vel = lander.body.getLinearVelocity().len();
+            float ang = Math.abs(lander.angle);
+            if (lander.touchdownSpeed < 0) lander.touchdownSpeed = vel;
+
+            if (hitPad && vel < 2.0f && ang < 10.0f) {
+                lander.landed = true;
+            } else if (!lander.landed) {
+                lander.alive = false;
+            }
+        }
+    }
+
+    @Override
+    public void endContact(Contact contact) {
+        LanderState lander = landerOf(contact.getFixtureA(), contact.getFixtureB());
+        if (lander == null) return;
+        if (lander.body.getLinearVelocity().y > 0.1f) {
+            lander.landed = false;
+        }
+    }
+
+    @Override public void preSolve(Contact contact, Manifold oldManifold) {}
+    @Override public void postSolve(Contact contact, ContactImpulse impulse) {}
+
+    private static LanderState landerOf(Fixture a, Fixture b) {
+        Object dataA = a.getUserData();
+        if (dataA instanceof LanderState) return (LanderState)dataA;
+        Object dataB = b.getUserData();
+        return dataB instanceof LanderState ? (LanderState)dataB : null;
+    }
+}
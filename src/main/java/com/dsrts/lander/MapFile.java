@@ -0,0 +1,310 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A pre-authored map on disk, sampled straight from a read-only memory mapping. Opening
+ * one reads the header, pads and summary and maps the heights without touching them;
+ * the OS pages samples in as chunks and queries reach them, so a map of hundreds of
+ * millions of samples opens at once, costs heap only for its summary and is shared
+ * by every Simulation flying over it, on any thread.
+ *
+ * Box2D and LanderState positions are floats, which lose centimetres beyond about
+ * 100 km from the origin, so a Simulation flies a {@link Region} of the map in the
+ * region's own coordinates rather than the whole map at once.
+ *
+ * Layout, all little-endian:
+ *   int   MAGIC, short VERSION, short 0
+ *   int   samples, float worldWidth (m), float spacing (m), int padWidth (samples)
+ *   int   pads, int summaryBlock (samples), long heightsOffset (bytes)
+ *   int   padCenters[pads]                              (sample indices, sorted)
+ *   float blockMin, blockMax [ceil(samples / summaryBlock)]
+ *   float heights[samples]                              (from heightsOffset, page aligned)
+ *
+ * The heights are mapped in segments of at most 2^{@link #SEGMENT_SHIFT} samples, as
+ * one MappedByteBuffer cannot span more than 2 GB.
+ *
+ * Usage: MapFile --out FILE [--samples N] [--seed N]   (generate a fractal map)
+ *        MapFile --info FILE
+ */
+public class MapFile implements HeightField {
+    static final int MAGIC = 0x50414D4C; // "LMAP"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final int SUMMARY_BLOCK = 1024;
+    static final int SEGMENT_SHIFT = 28; // 1 GB of floats per mapping
+    static final int ALIGN = 4096;
+    static final int WRITE_SAMPLES = 1 << 20; // samples generated and written per pass
+
+    public final Path path;
+    public final float worldWidth;
+    public final float spacing;
+    public final int[] padCenters;
+    public final int padWidth;
+
+    private final int samples;
+    private final int summaryBlock;
+    private final float[] summary; // min, max per block
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+    private TerrainIndex index;
+
+    private MapFile(Path path, int segmentShift) throws IOException {
+        this.path = path;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1 << segmentShift) - 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) throw new IOException("Not a map file: " + path);
+            short version = header.getShort();
+            if (version != VERSION) throw new IOException("Unsupported map version " + version + ": " + path);
+            header.getShort();
+            samples = header.getInt();
+            worldWidth = header.getFloat();
+            spacing = header.getFloat();
+            padWidth = header.getInt();
+            int pads = header.getInt();
+            summaryBlock = header.getInt();
+            long heightsOffset = header.getLong();
+            if (samples < 2 || summaryBlock <= 0 || heightsOffset + 4L * samples > channel.size()) {
+                throw new IOException("Corrupt map header: " + path);
+            }
+
+            int blocks = blockCount(samples, summaryBlock);
+            ByteBuffer tables = read(channel, HEADER_BYTES, 4L * pads + 8L * blocks);
+            padCenters = new int[pads];
+            tables.asIntBuffer().get(padCenters);
+            tables.position(4 * pads);
+            summary = new float[2 * blocks];
+            tables.asFloatBuffer().get(summary);
+
+            // Mapping is lazy: nothing below is read until a sample is asked for
+            segments = new ByteBuffer[(int)((samples - 1L) >> segmentShift) + 1];
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long)s << segmentShift;
+                long count = Math.min(1L << segmentShift, samples - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, heightsOffset + 4 * first, 4 * count);
+                segments[s] = segment.order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    /** Maps the file read-only; the mapping outlives the channel and is released by the GC. */
+    public static MapFile open(Path path) throws IOException {
+        return new MapFile(path, SEGMENT_SHIFT);
+    }
+
+    /** With smaller segments, so tests can cross segment boundaries without a multi-gigabyte map. */
+    static MapFile open(Path path, int segmentShift) throws IOException {
+        return new MapFile(path, segmentShift);
+    }
+
+    @Override
+    public int samples() {
+        return samples;
+    }
+
+    @Override
+    public float height(int i) {
+        return segments[i >>> segmentShift].getFloat((i & segmentMask) << 2);
+    }
+
+    @Override
+    public int summaryBlock() {
+        return summaryBlock;
+    }
+
+    @Override
+    public float blockMin(int b) {
+        return summary[2 * b];
+    }
+
+    @Override
+    public float blockMax(int b) {
+        return summary[2 * b + 1];
+    }
+
+    /**
+     * The window of about length samples centred on sample center, clamped to the map.
+     * Regions are views: they share this mapping and copy nothing but their pads.
+     */
+    public Region region(int center, int length) {
+        length = Math.min(length, samples);
+        int first = Math.max(0, Math.min(samples - length, center - length / 2));
+        return new Region(this, first, length);
+    }
+
+    /** Index over the whole map, built once from the summary and shared by every caller. */
+    public synchronized TerrainIndex index() {
+        if (index == null) index = new TerrainIndex(this, worldWidth, padCenters, padWidth);
+        return index;
+    }
+
+    /** Samples [first, first + samples) of a map, with x = 0 at first. */
+    public static class Region implements HeightField {
+        public final MapFile map;
+        public final int first;
+        public final float worldWidth;
+        public final int[] padCenters; // pads centred inside the region, relative to first
+        public final int padWidth;
+
+        private final int samples;
+        private TerrainIndex index;
+
+        Region(MapFile map, int first, int samples) {
+            this.map = map;
+            this.first = first;
+            this.samples = samples;
+            this.worldWidth = (float)((double)map.worldWidth * samples / map.samples); // exact for the whole map
+            this.padWidth = map.padWidth;
+            int from = Arrays.binarySearch(map.padCenters, first);
+            if (from < 0) from = -from - 1;
+            int to = Arrays.binarySearch(map.padCenters, first + samples);
+            if (to < 0) to = -to - 1;
+            padCenters = new int[to - from];
+            for (int p = 0; p < padCenters.length; p++) padCenters[p] = map.padCenters[from + p] - first;
+        }
+
+        @Override
+        public int samples() {
+            return samples;
+        }
+
+        @Override
+        public float height(int i) {
+            return map.height(first + i);
+        }
+
+        /** Index over the region, built once on first use and shared by every simulation flying it. */
+        public synchronized TerrainIndex index() {
+            // Built by scanning at the fine block size: it only reads the region's own pages
+            if (index == null) index = new TerrainIndex(this, worldWidth, padCenters, padWidth);
+            return index;
+        }
+    }
+
+    /** Writes an in-memory map, such as a generated one, to path. */
+    public static void write(Path path, float[] heights, float worldWidth, int[] padCenters, int padWidth) throws IOException {
+        write(path, heights.length, worldWidth, padCenters, padWidth,
+                (out, from, to) -> System.arraycopy(heights, from, out, 0, to - from));
+    }
+
+    /** Produces samples [from, to) into out[0 ...]. */
+    public interface Source {
+        void fill(float[] out, int from, int to);
+    }
+
+    /**
+     * Writes a map of any size, asking source for the heights a range at a time, so
+     * maps far larger than the heap can be authored or converted.
+     */
+    public static void write(Path path, int samples, float worldWidth, int[] padCenters, int padWidth, Source source)
+            throws IOException {
+        int blocks = blockCount(samples, SUMMARY_BLOCK);
+        long tablesEnd = HEADER_BYTES + 4L * padCenters.length + 8L * blocks;
+        long heightsOffset = (tablesEnd + ALIGN - 1) / ALIGN * ALIGN;
+        float[] summary = new float[2 * blocks];
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Heights first, summarising as they go by, then the tables in front of them
+            float[] values = new float[Math.min(samples, WRITE_SAMPLES)]; // a multiple of SUMMARY_BLOCK
+            ByteBuffer bytes = ByteBuffer.allocateDirect(4 * values.length).order(ByteOrder.LITTLE_ENDIAN);
+            for (int from = 0, to; from < samples; from = to) {
+                to = (int)Math.min(samples, (long)from + values.length);
+                source.fill(values, from, to);
+                bytes.clear();
+                for (int i = 0; i < to - from; i++) {
+                    float h = values[i];
+                    int b = 2 * ((from + i) / SUMMARY_BLOCK);
+                    if ((from + i) % SUMMARY_BLOCK == 0) {
+                        summary[b] = h;
+                        summary[b + 1] = h;
+                    } else {
+                        summary[b] = Math.min(summary[b], h);
+                        summary[b + 1] = Math.max(summary[b + 1], h);
+                    }
+                    bytes.putFloat(h);
+                }
+                bytes.flip();
+                writeFully(channel, bytes, heightsOffset + 4L * from);
+            }
+
+            ByteBuffer tables = ByteBuffer.allocate((int)(heightsOffset)).order(ByteOrder.LITTLE_ENDIAN);
+            tables.putInt(MAGIC).putShort(VERSION).putShort((short)0);
+            tables.putInt(samples).putFloat(worldWidth).putFloat(worldWidth / samples).putInt(padWidth);
+            tables.putInt(padCenters.length).putInt(SUMMARY_BLOCK).putLong(heightsOffset);
+            for (int c : padCenters) tables.putInt(c);
+            for (float v : summary) tables.putFloat(v);
+            tables.clear(); // the whole prefix, alignment padding included
+            writeFully(channel, tables, 0);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** A fractal map as Terrain generates them, at the standard sample spacing and pad density, written a range at a time. */
+    public static void generate(Path path, int samples, long seed) throws IOException {
+        int[] pads = Terrain.layoutPads(samples);
+        write(path, samples, samples * Terrain.SAMPLE_SPACING_M, pads, Terrain.padWidth,
+                (out, from, to) -> FractalTerrain.fill(out, 0, from, to, pads, Terrain.padWidth, seed));
+    }
+
+    private static int blockCount(int samples, int block) {
+        return (int)((samples + (long)block - 1) / block);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, long bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int)bytes).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Map file truncated");
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = null;
+        Path info = null;
+        int samples = 10_000_000;
+        long seed = new Random().nextLong();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out": out = Paths.get(args[++i]); break;
+                case "--samples": samples = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--info": info = Paths.get(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (out != null) {
+            long start = System.nanoTime();
+            generate(out, samples, seed);
+            System.err.printf("wrote %s: %d samples, seed %d, %.1f s%n", out, samples, seed, (System.nanoTime() - start) / 1e9);
+            if (info == null) info = out;
+        }
+        if (info == null) throw new IllegalArgumentException("Usage: MapFile --out FILE [--samples N] [--seed N] | --info FILE");
+
+        long start = System.nanoTime();
+        MapFile map = open(info);
+        TerrainIndex index = map.index();
+        double openMillis = (System.nanoTime() - start) / 1e6;
+        System.err.printf("%s: %d samples, %.0f m wide, %d pads, %d segments, peak %.1f m, opened and indexed in %.1f ms%n",
+                info, map.samples, map.worldWidth, map.padCenters.length, map.segments.length, index.maxHeight(), openMillis);
+    }
+}
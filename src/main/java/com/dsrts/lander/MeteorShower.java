@@ -0,0 +1,93 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Disposable;
+import java.util.Random;
+
+/**
+ * Fixed-capacity pool of {@link ShootingStar}s sharing one RNG. Live stars are packed at
+ * the front of the pool (swap-remove on expiry), and all of them are emitted into one
+ * preallocated vertex array and drawn with a single GL_TRIANGLES call. No allocation
+ * happens after construction except the mesh, which is created on first render.
+ */
+public class MeteorShower implements Disposable {
+    private final ShootingStar[] pool;
+    private int active = 0;
+    private final Random rng;
+    private final float[] vertices;
+    private Mesh mesh;
+
+    public MeteorShower(int capacity) {
+        this(capacity, new RandomXS128());
+    }
+
+    public MeteorShower(int capacity, Random rng) {
+        this.rng = rng;
+        pool = new ShootingStar[capacity];
+        for (int i = 0; i < capacity; i++) pool[i] = new ShootingStar();
+        vertices = new float[capacity * ShootingStar.MAX_FLOATS];
+    }
+
+    public int activeCount() { return active; }
+
+    public int capacity() { return pool.length; }
+
+    /** Launches one meteor from the default height over x; ignored when the pool is exhausted. */
+    public void spawn(float x) {
+        if (active == pool.length) return;
+        pool[active++].spawn(x, rng);
+    }
+
+    /** Launches up to count meteors scattered around (x, y). */
+    public void burst(int count, float x, float y, float spreadX, float spreadY) {
+        for (int i = 0; i < count && active < pool.length; i++) {
+            float sx = x + (rng.nextFloat() * 2f - 1f) * spreadX;
+            float sy = y + (rng.nextFloat() * 2f - 1f) * spreadY;
+            pool[active++].spawn(sx, sy, rng);
+        }
+    }
+
+    public void update(float dt) {
+        for (int i = 0; i < active; i++) {
+            ShootingStar star = pool[i];
+            star.update(dt);
+            if (!star.isActive()) {
+                pool[i] = pool[--active];
+                pool[active] = star;
+                i--;
+            }
+        }
+    }
+
+    /** Emits every live meteor into the shared vertex array; returns the number of floats written. */
+    public int buildVertices() {
+        int offset = 0;
+        for (int i = 0; i < active; i++) {
+            offset = pool[i].emit(vertices, offset);
+        }
+        return offset;
+    }
+
+    /** Draws all live meteors in one call. Shader must already be bound with the world projection. */
+    public void render(ShaderProgram shader) {
+        int floats = buildVertices();
+        if (floats == 0) return;
+        if (mesh == null) {
+            mesh = new Mesh(false, vertices.length / 3, 0,
+                    new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                    VertexAttribute.ColorPacked());
+        }
+        mesh.setVertices(vertices, 0, floats);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, floats / 3);
+    }
+
+    @Override
+    public void dispose() {
+        if (mesh != null) mesh.dispose();
+    }
+}
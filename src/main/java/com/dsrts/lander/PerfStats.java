@@ -0,0 +1,82 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Frame and physics timings for the perf overlay. Everything is recorded into
+ * fixed-size {@link Histogram}s, so instrumentation costs a few nanoTime calls per
+ * frame and no allocation. Render-thread only.
+ */
+public class PerfStats {
+    public final Histogram frameNanos = new Histogram();      // wall time between frame starts
+    public final Histogram renderNanos = new Histogram();     // Render.render
+    public final Histogram worldStepNanos = new Histogram();  // World.step, per step
+    public final Histogram controllerNanos = new Histogram(); // Physics.flybywire/advance, per step
+    public final Histogram stepsPerFrame = new Histogram();
+    public long firstFrameNanos = -1;  // launch to the end of the first frame, once drawn
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long gcCountAtStart;
+    private final long gcMillisAtStart;
+    private long lastFrameStart = -1;
+
+    public PerfStats() {
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+    }
+
+    /** Marks the start of a frame and records the time since the previous one. */
+    public void beginFrame(long now) {
+        if (lastFrameStart >= 0) frameNanos.record(now - lastFrameStart);
+        lastFrameStart = now;
+    }
+
+    public long gcCollections() {
+        return gcCount() - gcCountAtStart;
+    }
+
+    public long gcPauseMillis() {
+        return gcMillis() - gcMillisAtStart;
+    }
+
+    private long gcCount() {
+        long n = 0;
+        for (int i = 0; i < collectors.size(); i++) n += Math.max(0, collectors.get(i).getCollectionCount());
+        return n;
+    }
+
+    private long gcMillis() {
+        long n = 0;
+        for (int i = 0; i < collectors.size(); i++) n += Math.max(0, collectors.get(i).getCollectionTime());
+        return n;
+    }
+
+    public String toJson(GameLoop loop) {
+        StringBuilder out = new StringBuilder(1024).append("{\n");
+        appendField(out, "frameNanos", frameNanos);
+        appendField(out, "renderNanos", renderNanos);
+        appendField(out, "worldStepNanos", worldStepNanos);
+        appendField(out, "controllerNanos", controllerNanos);
+        appendField(out, "stepsPerFrame", stepsPerFrame);
+        out.append("  \"clampedFrames\": ").append(loop.clampedFrames).append(",\n");
+        out.append("  \"droppedSteps\": ").append(loop.droppedSteps).append(",\n");
+        out.append("  \"firstFrameMillis\": ").append(firstFrameNanos < 0 ? -1 : firstFrameNanos / 1_000_000).append(",\n");
+        out.append("  \"gcCollections\": ").append(gcCollections()).append(",\n");
+        out.append("  \"gcPauseMillis\": ").append(gcPauseMillis()).append("\n}\n");
+        return out.toString();
+    }
+
+    private static void appendField(StringBuilder out, String name, Histogram h) {
+        h.appendJson(out.append("  \"").append(name).append("\": ")).append(",\n");
+    }
+
+    public void writeJson(Path path, GameLoop loop) throws IOException {
+        Files.write(path, toJson(loop).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,7 +2,9 @@ package com.dsrts.lander;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.MassData;
+import com.badlogic.gdx.physics.box2d.Transform;
 
 public class Physics {
     public static final float GRAVITY = 1.62f; // m/s^2 (moon gravity)
@@ -14,6 +16,9 @@ public class Physics {
     public static final float MOMENT_OF_INERTIA = 40000f; 
     public static final float ROTATION_CONTROL_AUTHORITY = 0.2f; 
     public static final float FBW_ANGULAR_DAMPING = 1.2f; 
+    static final float SETTLED_SPEED = 0.05f; // m/s, below which a landed lander cuts its engines
+    static final float ANGULAR_SLEEP_TOLERANCE = 2f * MathUtils.degreesToRadians; // b2_angularSleepTolerance, rad/s
+    public static final float MASS_UPDATE_THRESHOLD = 1.0f; // kg of burn before Box2D mass data is refreshed
 
     public static void advance(LanderState lander, double dt) {
         float throttleDelta = THROTTLE_CHANGE_RATE * (float)dt;
@@ -37,19 +42,30 @@ public class Physics {
         lander.throttleLeft = leftThrust;
         lander.throttleRight = rightThrust;
 
+        syncState(lander, dt, angularVelocity(lander));
         applyForces(lander, dt);
-        syncState(lander, dt);
     }
 
+    // The split below lets Fleet run the same controller over many landers. Syncing before
+    // applying is equivalent to the reverse (forces only act on the next world step) and lets
+    // applyForces reuse the synced transform instead of fetching it again.
     public static void flybywire(LanderState lander, double dt) {
+        flybywireControl(lander, dt);
+        float angularVelocity = dampRotation(lander, dt);
+        syncState(lander, dt, angularVelocity);
+        applyForces(lander, dt);
+    }
+
+    /** FBW throttle and differential commands from the last synced state; no Box2D calls. */
+    static void flybywireControl(LanderState lander, double dt) {
         float mass = lander.getTotalMass();
+        FbwGains gains = lander.gains;
         
         // --- 1. Vertical Control (High-Smoothing PID) ---
         float rawVyError = lander.goalVy - lander.vy;
         
         // Error Smoothing (Low Pass on the input signal)
-        float errorSmoothing = 0.1f;
-        lander.filteredVyError += (rawVyError - lander.filteredVyError) * errorSmoothing;
+        lander.filteredVyError += (rawVyError - lander.filteredVyError) * gains.vyErrorSmoothing;
         
         float cosTheta = MathUtils.cosDeg(lander.angle);
         float baseThrottle = 0f;
@@ -58,9 +74,9 @@ public class Physics {
         }
         
         // PID Gains - Tuned for smoothed error
-        float Kp_v = 3.0f; 
-        float Ki_v = 1.0f; 
-        float Kd_v = 1.5f; 
+        float Kp_v = gains.kpVy;
+        float Ki_v = gains.kiVy;
+        float Kd_v = gains.kdVy;
         
         if (lander.fuelMass > 0 && !lander.landed) {
             // I-Term using filtered error
@@ -69,8 +85,7 @@ public class Physics {
             
             // D-Term Smoothing
             float rawDerivative = -lander.verticalAccel;
-            float dSmoothing = 0.05f; // Even more smoothing for D
-            lander.derivativeVyError += (rawDerivative - lander.derivativeVyError) * dSmoothing;
+            lander.derivativeVyError += (rawDerivative - lander.derivativeVyError) * gains.vyDerivativeSmoothing;
         } else {
             lander.integralVyError = 0;
             lander.derivativeVyError = 0;
@@ -91,53 +106,118 @@ public class Physics {
 
         // --- 2. Attitude Control (PD) ---
         float angleError = lander.goalAngle - lander.angle;
-        float Kp_a = 0.05f; 
-        float Kd_a = 0.02f; 
+        float Kp_a = gains.kpAngle;
+        float Kd_a = gains.kdAngle;
         float diffCommand = (angleError * Kp_a) - (lander.omega * Kd_a);
         
         float leftThrust = lander.throttle - diffCommand;
         float rightThrust = lander.throttle + diffCommand;
         lander.throttleLeft = MathUtils.clamp(leftThrust, -0.5f, 1.0f);
         lander.throttleRight = MathUtils.clamp(rightThrust, -0.5f, 1.0f);
-
-        applyForces(lander, dt);
-        lander.body.setAngularVelocity(lander.body.getAngularVelocity() * (1.0f - FBW_ANGULAR_DAMPING * (float)dt));
-        syncState(lander, dt);
+        if (lander.landed && Math.abs(lander.vx) + Math.abs(lander.vy) < SETTLED_SPEED
+                && Math.abs(lander.omega) < ANGULAR_SLEEP_TOLERANCE * MathUtils.radiansToDegrees) {
+            // Settled on the pad: cut the engines so the body can sleep; the legs hold attitude now
+            lander.throttleLeft = 0f;
+            lander.throttleRight = 0f;
+        }
     }
 
-    private static void applyForces(LanderState lander, double dt) {
-        if (lander.fuelMass <= 0) return;
+    /**
+     * FBW rate damping; returns the new angular velocity in rad/s. Once landed, rates below
+     * Box2D's sleep tolerance are left alone: setting a non-zero rate wakes the body, which
+     * would keep a parked lander from ever sleeping.
+     */
+    static float dampRotation(LanderState lander, double dt) {
+        float angularVelocity = angularVelocity(lander);
+        if (lander.landed && Math.abs(angularVelocity) < ANGULAR_SLEEP_TOLERANCE) return angularVelocity;
+        angularVelocity *= 1.0f - lander.gains.angularDamping * (float)dt;
+        if (lander.freeFlight != null) {
+            lander.freeFlight.w = angularVelocity;
+        } else {
+            lander.body.setAngularVelocity(angularVelocity);
+        }
+        return angularVelocity;
+    }
 
-        MassData massData = new MassData();
-        massData.mass = lander.getTotalMass();
-        massData.center.set(0, 0);
-        massData.I = MOMENT_OF_INERTIA;
-        lander.body.setMassData(massData);
+    /** Angular velocity in rad/s from whichever integrator currently owns the lander. */
+    static float angularVelocity(LanderState lander) {
+        return lander.freeFlight != null ? lander.freeFlight.w : lander.body.getAngularVelocity();
+    }
 
-        float fL = lander.throttleLeft * (ENGINE_THRUST / 2f);
-        float fR = lander.throttleRight * (ENGINE_THRUST / 2f);
+    static void applyForces(LanderState lander, double dt) {
+        if (lander.fuelMass <= 0) return;
 
-        Vector2 forceL = lander.body.getWorldVector(new Vector2(0, fL));
-        Vector2 posL = lander.body.getWorldPoint(new Vector2(-NACELLE_DIST, 0));
-        lander.body.applyForce(forceL, posL, true);
+        // Burn changes mass by grams per step; only push new mass data once it has drifted
+        float mass = lander.getTotalMass();
+        if (Math.abs(mass - lander.appliedMass) >= MASS_UPDATE_THRESHOLD) {
+            if (lander.freeFlight != null) {
+                lander.freeFlight.setMassData(mass, MOMENT_OF_INERTIA);
+            } else {
+                MassData massData = lander.massData;
+                massData.mass = mass;
+                massData.center.set(0, 0);
+                massData.I = MOMENT_OF_INERTIA;
+                lander.body.setMassData(massData);
+            }
+            lander.appliedMass = mass;
+        }
 
-        Vector2 forceR = lander.body.getWorldVector(new Vector2(0, fR));
-        Vector2 posR = lander.body.getWorldPoint(new Vector2(NACELLE_DIST, 0));
-        lander.body.applyForce(forceR, posR, true);
+        if (!applyThrust(lander)) return;
 
         float combinedThrottle = (Math.abs(lander.throttleLeft) + Math.abs(lander.throttleRight)) / 2f;
         lander.fuelMass -= FUEL_BURN_RATE * combinedThrottle * (float)dt;
         if (lander.fuelMass < 0) lander.fuelMass = 0;
     }
 
-    private static void syncState(LanderState lander, double dt) {
-        Vector2 pos = lander.body.getPosition();
-        Vector2 vel = lander.body.getLinearVelocity();
+    /**
+     * Pushes both engines' force for the next world step without burning fuel; false if
+     * both throttles are zero. Also used to re-arm a restored {@link SimulationSnapshot}.
+     */
+    static boolean applyThrust(LanderState lander) {
+        float fL = lander.throttleLeft * (ENGINE_THRUST / 2f);
+        float fR = lander.throttleRight * (ENGINE_THRUST / 2f);
+        if (fL == 0f && fR == 0f) return false; // applying even a zero force wakes the body
+
+        // Thrust acts along local +y at (-/+NACELLE_DIST, 0); rotate both by the synced body transform
+        float px = lander.x, py = lander.y;
+        float cos = lander.rotCos, sin = lander.rotSin;
+        FreeFlight free = lander.freeFlight;
+        if (free != null) {
+            free.applyForce(-sin * fL, cos * fL, px - cos * NACELLE_DIST, py - sin * NACELLE_DIST);
+            free.applyForce(-sin * fR, cos * fR, px + cos * NACELLE_DIST, py + sin * NACELLE_DIST);
+        } else {
+            Body body = lander.body;
+            body.applyForce(-sin * fL, cos * fL, px - cos * NACELLE_DIST, py - sin * NACELLE_DIST, true);
+            body.applyForce(-sin * fR, cos * fR, px + cos * NACELLE_DIST, py + sin * NACELLE_DIST, true);
+        }
+        lander.thrustPending = true;
+        return true;
+    }
+
+    static void syncState(LanderState lander, double dt) {
+        syncState(lander, dt, angularVelocity(lander));
+    }
+
+    /** Reads the body back with one transform and one velocity fetch; angular velocity is passed in. */
+    static void syncState(LanderState lander, double dt, float angularVelocity) {
         float prevVy = lander.vy;
-        lander.x = pos.x; lander.y = pos.y;
-        lander.vx = vel.x; lander.vy = vel.y;
-        lander.angle = lander.body.getAngle() * MathUtils.radiansToDegrees;
-        lander.omega = lander.body.getAngularVelocity() * MathUtils.radiansToDegrees;
+        FreeFlight free = lander.freeFlight;
+        if (free != null) {
+            lander.x = free.x; lander.y = free.y;
+            lander.rotCos = free.cos; lander.rotSin = free.sin;
+            lander.vx = free.vx; lander.vy = free.vy;
+        } else {
+            float[] xf = lander.body.getTransform().vals;
+            Vector2 vel = lander.body.getLinearVelocity();
+            lander.x = xf[Transform.POS_X]; lander.y = xf[Transform.POS_Y];
+            lander.rotCos = xf[Transform.COS]; lander.rotSin = xf[Transform.SIN];
+            lander.vx = vel.x; lander.vy = vel.y;
+        }
+        // The transform only gives the angle modulo a turn; unwrap against the last one
+        float wrapped = (float)Math.toDegrees(Math.atan2(lander.rotSin, lander.rotCos));
+        float turn = wrapped - lander.angle;
+        lander.angle += turn - 360f * Math.round(turn / 360f);
+        lander.omega = angularVelocity * MathUtils.radiansToDegrees;
         lander.verticalAccel = (lander.vy - prevVy) / (float)dt;
         lander.prevVy = prevVy;
         
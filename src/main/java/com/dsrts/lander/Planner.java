@@ -0,0 +1,309 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo landing planner. From a snapshot of the lander it flies many
+ * {@link BatchRunner} autopilot schedules (target pad, cruise and final descent
+ * rates, flare altitude) forward on a ForkJoin pool, each restored from one
+ * {@link SimulationSnapshot} into a {@link SimulationPool} simulation, and publishes
+ * the best one with its predicted path.
+ *
+ * Each search keeps the previous best schedule and samples the rest around it, so
+ * re-planning every few hundred ms refines rather than restarts. A new request
+ * bumps the generation; rollouts check it every {@link #CANCEL_CHECK_STEPS} steps
+ * and stop, so stale searches free the pool quickly. {@link #latest()} never blocks.
+ */
+public class Planner {
+    public static final int CANDIDATES = 32;
+    public static final int HORIZON_STEPS = 60 * 30; // thirty simulated seconds
+    static final int PATH_STRIDE = 6;                // steps between recorded path points
+    static final int CANCEL_CHECK_STEPS = 64;
+
+    /** Best schedule of one search. Immutable once published. */
+    public static class Plan {
+        public final long generation;
+        public final BatchRunner.Scenario schedule;
+        public final float[] path;      // x, y pairs from the start state
+        public final int pathPoints;
+        public final int outcome;       // BatchRunner.OUTCOME_*
+        public final float score;
+        public final float touchdownSpeed; // m/s, -1 if the rollout never touched ground
+        public final float fuelUsed;    // kg
+        public final float seconds;     // simulated time to the end of the rollout
+        public final float goalVy, goalAngle; // setpoints the schedule asks for right now
+
+        Plan(long generation, Rollout r) {
+            this.generation = generation;
+            this.schedule = r.schedule;
+            this.path = r.path;
+            this.pathPoints = r.pathPoints;
+            this.outcome = r.outcome;
+            this.score = r.score;
+            this.touchdownSpeed = r.touchdownSpeed;
+            this.fuelUsed = r.fuelUsed;
+            this.seconds = r.seconds;
+            this.goalVy = r.goalVy;
+            this.goalAngle = r.goalAngle;
+        }
+    }
+
+    /** Result of flying one candidate; null from {@link #rollout} when cancelled. */
+    static class Rollout {
+        BatchRunner.Scenario schedule;
+        float[] path;
+        int pathPoints;
+        int outcome;
+        float score, touchdownSpeed, fuelUsed, seconds;
+        float goalVy, goalAngle;
+    }
+
+    private final int[] padCenters;
+    private final TerrainIndex terrain;
+    private final ForkJoinPool pool;
+    private final SimulationPool simulations;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong running = new AtomicLong(); // searches submitted and not yet finished
+    private volatile Plan latest;
+    private volatile BatchRunner.Scenario seedSchedule; // best schedule so far, refined by the next search
+    private final Object publishLock = new Object(); // generation bumps vs. publishing latest and seedSchedule
+
+    public Planner(float[] terrainHeights, float worldWidth, int[] padCenters, int threads) {
+        this.padCenters = padCenters;
+        this.simulations = new SimulationPool(terrainHeights, worldWidth, padCenters, worldWidth > Lander.WORLD_WIDTH_M);
+        this.terrain = new TerrainIndex(terrainHeights, worldWidth, padCenters, Terrain.padWidth);
+        this.pool = new ForkJoinPool(threads); // workers are daemon threads
+    }
+
+    /** Defaults to one worker fewer than there are cores, so the render thread keeps one. */
+    public Planner(float[] terrainHeights, float worldWidth, int[] padCenters) {
+        this(terrainHeights, worldWidth, padCenters, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /** Most recent published plan, or null. */
+    public Plan latest() {
+        return latest;
+    }
+
+    /** True while a search is still running; callers re-plan on a timer only when idle. */
+    public boolean busy() {
+        return running.get() > 0;
+    }
+
+    /** Starts a search from a snapshot of state, cancelling any search still in flight. */
+    public void request(LanderState state) {
+        float[] start = new float[SimulationSnapshot.SIZE];
+        SimulationSnapshot.capture(state, start, 0);
+        long gen;
+        BatchRunner.Scenario seed;
+        synchronized (publishLock) {
+            gen = generation.incrementAndGet();
+            seed = seedSchedule;
+        }
+        BatchRunner.Scenario[] candidates = candidates(state, seed, new Random(gen * 0x9E3779B97F4A7C15L));
+        running.incrementAndGet();
+        pool.execute(new Search(gen, start, state.gains, candidates));
+    }
+
+    /** Cancels the current search and forgets the last plan. */
+    public void cancel() {
+        synchronized (publishLock) {
+            generation.incrementAndGet();
+            latest = null;
+            seedSchedule = null;
+        }
+    }
+
+    /**
+     * Stops the workers and frees the pooled worlds, but only once no rollout can still be
+     * stepping one; if the workers will not stop, the worlds are leaked instead.
+     */
+    public void shutdown() {
+        generation.incrementAndGet();
+        pool.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = pool.awaitTermination(5, TimeUnit.SECONDS);
+            if (!terminated) {
+                pool.shutdownNow();
+                terminated = pool.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (terminated) {
+            simulations.dispose();
+        } else {
+            System.err.println("Planner workers did not stop; leaking " + simulations.created() + " simulations");
+        }
+    }
+
+    /** Candidate 0 is the previous best unchanged, half are perturbations of it, the rest are fresh. */
+    BatchRunner.Scenario[] candidates(LanderState start, BatchRunner.Scenario previous, Random rng) {
+        int nearest = terrain.nearestPad(start.x);
+        BatchRunner.Scenario[] out = new BatchRunner.Scenario[CANDIDATES];
+        int i = 0;
+        if (previous != null) {
+            out[i++] = previous;
+            for (; i < CANDIDATES / 2; i++) {
+                BatchRunner.Scenario s = new BatchRunner.Scenario();
+                s.pad = rng.nextInt(8) == 0 ? clampPad(previous.pad + (rng.nextBoolean() ? 1 : -1)) : previous.pad;
+                s.cruiseVy = MathUtils.clamp(previous.cruiseVy + (float)rng.nextGaussian() * 0.5f, -6f, -1f);
+                s.finalVy = MathUtils.clamp(previous.finalVy + (float)rng.nextGaussian() * 0.15f, -1.5f, -0.3f);
+                s.flareAltitude = MathUtils.clamp(previous.flareAltitude + (float)rng.nextGaussian() * 3f, 5f, 30f);
+                out[i] = s;
+            }
+        }
+        for (; i < CANDIDATES; i++) {
+            BatchRunner.Scenario s = new BatchRunner.Scenario();
+            s.pad = clampPad(nearest + rng.nextInt(3) - 1);
+            s.cruiseVy = -1f - rng.nextFloat() * 5f;
+            s.finalVy = -0.3f - rng.nextFloat() * 1.2f;
+            s.flareAltitude = 5f + rng.nextFloat() * 25f;
+            out[i] = s;
+        }
+        return out;
+    }
+
+    private int clampPad(int pad) {
+        return MathUtils.clamp(pad, 0, padCenters.length - 1);
+    }
+
+    /** Flies one schedule from start; returns null if generation gen went stale on the way. */
+    Rollout rollout(long gen, float[] start, FbwGains gains, BatchRunner.Scenario schedule) {
+        Simulation sim = simulations.acquire();
+        try {
+            sim.hybrid = true; // rollouts only need Box2D for the last meters
+            SimulationSnapshot.restore(sim, start, 0);
+            sim.steps = 0;
+            LanderState lander = sim.lander;
+            lander.gains = gains;
+            lander.flyByWireMode = true; // plans are flown by the FBW autopilot whatever mode the pilot is in
+            float startFuel = lander.fuelMass;
+            Rollout r = new Rollout();
+            r.schedule = schedule;
+            r.path = new float[2 * (HORIZON_STEPS / PATH_STRIDE + 2)];
+            r.path[r.pathPoints * 2] = lander.x;
+            r.path[r.pathPoints * 2 + 1] = lander.y;
+            r.pathPoints++;
+
+            while (lander.alive && !lander.landed && sim.steps < HORIZON_STEPS) {
+                if (sim.steps % CANCEL_CHECK_STEPS == 0 && generation.get() != gen) return null;
+                BatchRunner.autopilot(sim, schedule);
+                if (sim.steps == 0) {
+                    r.goalVy = lander.goalVy;
+                    r.goalAngle = lander.goalAngle;
+                }
+                sim.step();
+                if (sim.steps % PATH_STRIDE == 0) {
+                    r.path[r.pathPoints * 2] = lander.x;
+                    r.path[r.pathPoints * 2 + 1] = lander.y;
+                    r.pathPoints++;
+                }
+            }
+            if (sim.steps % PATH_STRIDE != 0) {
+                r.path[r.pathPoints * 2] = lander.x;
+                r.path[r.pathPoints * 2 + 1] = lander.y;
+                r.pathPoints++;
+            }
+
+            r.outcome = lander.landed ? BatchRunner.OUTCOME_LANDED
+                    : (!lander.alive ? BatchRunner.OUTCOME_CRASHED : BatchRunner.OUTCOME_TIMEOUT);
+            r.touchdownSpeed = lander.touchdownSpeed;
+            r.fuelUsed = startFuel - lander.fuelMass;
+            r.seconds = (float)(sim.steps * Simulation.DT);
+            r.score = score(r, lander, sim);
+            return r;
+        } finally {
+            simulations.release(sim);
+        }
+    }
+
+    /** Landings rank by fuel and time, crashes by impact speed, timeouts by how close they got. */
+    private float score(Rollout r, LanderState lander, Simulation sim) {
+        switch (r.outcome) {
+            case BatchRunner.OUTCOME_LANDED:
+                return 1000f - r.fuelUsed * 0.5f - r.seconds;
+            case BatchRunner.OUTCOME_CRASHED:
+                return -1000f - r.touchdownSpeed * 10f;
+            default:
+                float dx = Math.abs(terrain.padX(r.schedule.pad) - lander.x);
+                float altitude = lander.y - terrain.heightAt(lander.x);
+                return -100f - dx - altitude * 0.2f;
+        }
+    }
+
+    /** Root of one search: forks the candidates, then publishes the best if still current. */
+    private class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long gen;
+        final float[] start; // SimulationSnapshot of the state to plan from
+        final FbwGains gains;
+        final BatchRunner.Scenario[] candidates;
+
+        Search(long gen, float[] start, FbwGains gains, BatchRunner.Scenario[] candidates) {
+            this.gen = gen;
+            this.start = start;
+            this.gains = gains;
+            this.candidates = candidates;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                Rollout[] results = new Rollout[candidates.length];
+                invokeAll(new Batch(this, results, 0, candidates.length));
+                if (generation.get() != gen) return;
+                Rollout best = null;
+                for (Rollout r : results) {
+                    if (r != null && (best == null || r.score > best.score)) best = r;
+                }
+                if (best == null) return;
+                Plan plan = new Plan(gen, best);
+                // A request or cancel since the check above must not be overwritten by a stale plan
+                synchronized (publishLock) {
+                    if (generation.get() != gen) return;
+                    seedSchedule = best.schedule;
+                    latest = plan;
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    /** Splits a candidate range down to single rollouts. */
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Search search;
+        final Rollout[] results;
+        final int from, to;
+
+        Batch(Search search, Rollout[] results, int from, int to) {
+            this.search = search;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (generation.get() == search.gen) {
+                    results[from] = rollout(search.gen, search.start, search.gains, search.candidates[from]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(search, results, from, mid), new Batch(search, results, mid, to));
+        }
+    }
+}
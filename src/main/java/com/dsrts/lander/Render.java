@@ -4,9 +4,12 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ImmediateModeRenderer20;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
@@ -17,6 +20,8 @@ import com.badlogic.gdx.utils.viewport.Viewport;
 
 public class Render {
     private ShapeRenderer shapeRenderer;
+    private ShaderProgram meshShader;
+    private TerrainMesh terrainMesh;
     private Box2DDebugRenderer debugRenderer;
     private SpriteBatch batch;
     private BitmapFont font;
@@ -25,76 +30,62 @@ public class Render {
     private Viewport hudViewport;
     private OrthographicCamera worldCamera;
     
-    private static final int GALAXY_STAR_COUNT = 30;
-    private float[] galaxyStarX = new float[GALAXY_STAR_COUNT];
-    private float[] galaxyStarY = new float[GALAXY_STAR_COUNT];
-    private int galaxyThird;
-    private float galaxyRotation = 0f;
-    private static final float GALAXY_ROTATION_SPEED = 10f;
-    
-    private static final int SMALL_STARS_COUNT = 75;
-    private static final int LARGE_STARS_COUNT = 25;
-    private float[] smallStarX = new float[SMALL_STARS_COUNT];
-    private float[] smallStarY = new float[SMALL_STARS_COUNT];
-    private float[] largeStarX = new float[LARGE_STARS_COUNT];
-    private float[] largeStarY = new float[LARGE_STARS_COUNT];
+    private Starfield starfield;
+    private TerrainIndex terrain;
+    private float drawX, drawY, drawAngle; // interpolated lander pose for this frame
+
+    // HUD is rendered into hudBuffer and only redrawn when hudKey changes
+    private FrameBuffer hudBuffer;
+    private final long[] hudKey = new long[11];
+    private boolean hudDirty = true;
+    private final StringBuilder altText = new StringBuilder(32);
+    private final StringBuilder radarText = new StringBuilder(32);
+    private final StringBuilder goalText = new StringBuilder(32);
+    private final StringBuilder velText = new StringBuilder(32);
     
-    private ShootingStar shootingStar = new ShootingStar();
+    // Perf overlay (F3), drawn over the right half of the HUD every frame while shown
+    private PerfStats perf;
+    private GameLoop loop;
+    private boolean showPerf = false;
+    private final StringBuilder perfText = new StringBuilder(64);
+
+    // Landing planner (P): best predicted path in the world, its advice under the mode line
+    private Planner planner;
+    private final StringBuilder planText = new StringBuilder(64);
+
+    private static final int METEOR_CAPACITY = 256;
+    private static final int SHOWER_SIZE = 40;
+    private static final float SHOWER_CHANCE = 0.25f;
+    private final MeteorShower meteors = new MeteorShower(METEOR_CAPACITY);
     private float shootingStarTimer = 0f;
     private static final float MIN_STAR_INTERVAL = 10f;
     private static final float MAX_STAR_INTERVAL = 15f;
     private float nextStarTime = MIN_STAR_INTERVAL;
 
-    public void init(Lander landerApp) {
+    /** @param font and stars come prepared from {@link Startup}; this only makes the GL objects */
+    public void init(Lander landerApp, BitmapFont font, Starfield.Stars stars) {
         shapeRenderer = new ShapeRenderer();
         shapeRenderer.setAutoShapeType(true);
         debugRenderer = new Box2DDebugRenderer();
         batch = new SpriteBatch();
-        
-        // Font setup using FreeType
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("fonts/Roboto-Regular.ttf"));
-        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        parameter.size = 22;
-        parameter.color = Color.WHITE;
-        font = generator.generateFont(parameter);
-        generator.dispose();
+        meshShader = ImmediateModeRenderer20.createDefaultShader(false, true, 0);
+        terrainMesh = new TerrainMesh(Terrain.terrainHeights, Lander.WORLD_WIDTH_M, Terrain.padCenters, Terrain.padWidth);
+        this.font = font;
         
         worldCamera = new OrthographicCamera();
         worldViewport = new ExtendViewport(Lander.WORLD_WIDTH_M / 3f, Lander.WORLD_HEIGHT_M, worldCamera);
         hudViewport = new ScreenViewport();
         
-        initStars();
+        terrain = landerApp.getTerrain();
+        starfield = new Starfield(stars);
     }
     
-    private void initStars() {
-        galaxyThird = MathUtils.random(2);
-        for (int i = 0; i < GALAXY_STAR_COUNT; i++) {
-            double angle = Math.random() * 2.0 * Math.PI;
-            double rad = (0.5 + Math.random() * 0.5);
-            galaxyStarX[i] = (float)Math.cos(angle) * (float)rad;
-            galaxyStarY[i] = (float)Math.sin(angle) * (float)rad;
-        }
-
-        float minClearance = 10.0f;
-        for (int i = 0; i < SMALL_STARS_COUNT; i++) {
-            smallStarX[i] = MathUtils.random(Lander.WORLD_WIDTH_M);
-            int terrainIndex = (int)(smallStarX[i] * Terrain.terrainHeights.length / Lander.WORLD_WIDTH_M);
-            float terrainHeight = Terrain.terrainHeights[terrainIndex];
-            float availableHeight = Lander.WORLD_HEIGHT_M - (terrainHeight + minClearance);
-            smallStarY[i] = terrainHeight + minClearance + MathUtils.random(availableHeight);
-        }
-
-        for (int i = 0; i < LARGE_STARS_COUNT; i++) {
-            largeStarX[i] = MathUtils.random(Lander.WORLD_WIDTH_M);
-            int terrainIndex = (int)(largeStarX[i] * Terrain.terrainHeights.length / Lander.WORLD_WIDTH_M);
-            float terrainHeight = Terrain.terrainHeights[terrainIndex];
-            float availableHeight = Lander.WORLD_HEIGHT_M - (terrainHeight + minClearance);
-            largeStarY[i] = terrainHeight + minClearance + MathUtils.random(availableHeight);
-        }
-    }
-
-    public void render(LanderState lander) {
-        float camX = lander.x;
+    /** @param alpha fraction of a physics step elapsed since the last one; the lander is drawn between its previous and current pose */
+    public void render(LanderState lander, float alpha) {
+        drawX = MathUtils.lerp(lander.prevX, lander.x, alpha);
+        drawY = MathUtils.lerp(lander.prevY, lander.y, alpha);
+        drawAngle = MathUtils.lerp(lander.prevAngle, lander.angle, alpha);
+        float camX = drawX;
         float halfVisibleW = worldViewport.getWorldWidth() / 2f;
         if (camX < halfVisibleW) camX = halfVisibleW;
         if (camX > Lander.WORLD_WIDTH_M - halfVisibleW) camX = Lander.WORLD_WIDTH_M - halfVisibleW;
@@ -109,17 +100,30 @@ public class Render {
         worldViewport.apply();
         shapeRenderer.setProjectionMatrix(worldCamera.combined);
         
-        // Stars
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Point);
-        shapeRenderer.setColor(0.8f, 0.8f, 0.9f, 1f);
-        for (int i = 0; i < SMALL_STARS_COUNT; i++) {
-            shapeRenderer.point(smallStarX[i], smallStarY[i], 0);
-        }
-        shapeRenderer.end();
+        // Stars and galaxy: static meshes, scrolled by transform
+        meshShader.bind();
+        starfield.render(meshShader, worldCamera.combined, camX, Gdx.graphics.getDeltaTime());
+
+        // Shooting stars: one batched draw for the whole pool
+        updateMeteors(lander);
+        meshShader.setUniformMatrix("u_projModelView", worldCamera.combined);
+        meteors.render(meshShader);
         
         // Dynamic World
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-        drawDynamicWorld(lander);
+        drawObjects();
+        shapeRenderer.end();
+
+        // Terrain and pads: static mesh, visible slice only
+        meshShader.bind();
+        meshShader.setUniformMatrix("u_projModelView", worldCamera.combined);
+        terrainMesh.render(meshShader, camX - halfVisibleW, camX + halfVisibleW);
+
+        Planner.Plan plan = planner != null && lander.alive && !lander.landed ? planner.latest() : null;
+        if (plan != null) drawPlanPath(plan);
+
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        renderLander(lander);
         shapeRenderer.end();
         
         // Debug Physics (Optional overlay)
@@ -131,92 +135,31 @@ public class Render {
         batch.setProjectionMatrix(hudViewport.getCamera().combined);
         
         drawHud(lander);
+        if (plan != null) drawPlanAdvice(plan);
+        if (showPerf && perf != null) drawPerfOverlay();
         
         Gdx.gl.glDisable(GL20.GL_BLEND);
     }
     
-    private void drawDynamicWorld(LanderState lander) {
-        // Large stars
-        shapeRenderer.setColor(0.8f, 0.8f, 0.9f, 1f);
-        for (int i = 0; i < LARGE_STARS_COUNT; i++) {
-            drawLargeStar(largeStarX[i], largeStarY[i]);
-        }
-        
-        // Shooting Star
-        shootingStar.update(Gdx.graphics.getDeltaTime());
-        if (shootingStar.isActive()) {
-            shootingStar.render(shapeRenderer);
-        } else {
-            shootingStarTimer += Gdx.graphics.getDeltaTime();
-            if (shootingStarTimer >= nextStarTime) {
-                shootingStar.spawn(lander.x);
-                shootingStarTimer = 0;
-                nextStarTime = MIN_STAR_INTERVAL + MathUtils.random(MAX_STAR_INTERVAL - MIN_STAR_INTERVAL);
-            }
-        }
-        
-        drawObjects();
-        
-        // Terrain
-        shapeRenderer.setColor(Color.WHITE);
-        for (int i = 0; i < Terrain.terrainHeights.length - 1; i++) {
-            float x1 = i * Lander.WORLD_WIDTH_M / Terrain.terrainHeights.length;
-            float y1 = Terrain.terrainHeights[i];
-            float x2 = (i + 1) * Lander.WORLD_WIDTH_M / Terrain.terrainHeights.length;
-            float y2 = Terrain.terrainHeights[i + 1];
-            shapeRenderer.line(x1, y1, x2, y2);
-        }
-        
-        // Pads
-        shapeRenderer.setColor(Color.RED);
-        for (int c = 0; c < Terrain.padCenters.length; c++) {
-            int start = Terrain.padCenters[c] - Terrain.padWidth / 2;
-            int end = Terrain.padCenters[c] + Terrain.padWidth / 2;
-            for (int i = start; i < end - 1; i++) {
-                float x1 = i * Lander.WORLD_WIDTH_M / Terrain.terrainHeights.length;
-                float y1 = Terrain.terrainHeights[i];
-                float x2 = (i + 1) * Lander.WORLD_WIDTH_M / Terrain.terrainHeights.length;
-                float y2 = Terrain.terrainHeights[i + 1];
-                shapeRenderer.line(x1, y1, x2, y2);
+    private void updateMeteors(LanderState lander) {
+        float delta = Gdx.graphics.getDeltaTime();
+        meteors.update(delta);
+        shootingStarTimer += delta;
+        if (shootingStarTimer >= nextStarTime) {
+            if (MathUtils.random() < SHOWER_CHANCE) {
+                meteors.burst(SHOWER_SIZE, drawX, Lander.WORLD_HEIGHT_M * 0.8f, worldViewport.getWorldWidth() / 2f, 15f);
+            } else {
+                meteors.spawn(drawX);
             }
+            shootingStarTimer = 0;
+            nextStarTime = MIN_STAR_INTERVAL + MathUtils.random(MAX_STAR_INTERVAL - MIN_STAR_INTERVAL);
         }
-        
-        renderLander(lander);
-    }
-    
-    private void drawLargeStar(float x, float y) {
-        float size = 0.5f;
-        shapeRenderer.line(x - size, y, x + size, y);
-        shapeRenderer.line(x, y - size, x, y + size);
     }
     
     private void drawObjects() {
         float thirdWidth = Lander.WORLD_WIDTH_M / 3f;
         
-        // --- 1. Galaxy ---
-        float galaxyX = (galaxyThird * thirdWidth + thirdWidth * 0.3f);
-        float galaxyY = 120f;
-        float galaxyRadius = 8f;
-        
-        galaxyRotation += GALAXY_ROTATION_SPEED * Gdx.graphics.getDeltaTime();
-        
-        Matrix4 oldTransform = shapeRenderer.getTransformMatrix().cpy();
-        Matrix4 galaxyTransform = oldTransform.cpy().translate(galaxyX, galaxyY, 0).rotate(0, 0, 1, galaxyRotation);
-        shapeRenderer.setTransformMatrix(galaxyTransform);
-        
-        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(0.8f, 0.6f, 1.0f, 1f);
-        shapeRenderer.circle(0, 0, galaxyRadius, 20);
-        
-        shapeRenderer.set(ShapeRenderer.ShapeType.Point);
-        shapeRenderer.setColor(Color.WHITE);
-        for (int i = 0; i < GALAXY_STAR_COUNT; i++) {
-            shapeRenderer.point(galaxyStarX[i] * galaxyRadius, galaxyStarY[i] * galaxyRadius, 0);
-        }
-        
-        shapeRenderer.setTransformMatrix(oldTransform);
-        
-        // --- 2. Earth ---
+        // --- Earth ---
         float earthX = (thirdWidth + thirdWidth * 0.7f);
         float earthY = 100f;
         float earthRadius = 4f;
@@ -259,9 +202,9 @@ public class Render {
         shapeRenderer.flush();
         Matrix4 oldTransform = shapeRenderer.getTransformMatrix().cpy();
         Matrix4 newTransform = oldTransform.cpy();
-        newTransform.translate(lander.x, lander.y, 0);
+        newTransform.translate(drawX, drawY, 0);
         // Use angle directly (CCW positive now)
-        newTransform.rotate(0, 0, 1, lander.angle);
+        newTransform.rotate(0, 0, 1, drawAngle);
         shapeRenderer.setTransformMatrix(newTransform);
 
         if (!lander.alive) shapeRenderer.setColor(Color.RED);
@@ -349,9 +292,66 @@ public class Render {
     }
 
     private void drawHud(LanderState lander) {
-        float screenW = hudViewport.getWorldWidth();
-        float screenH = hudViewport.getWorldHeight();
-        
+        int screenW = (int)hudViewport.getWorldWidth();
+        int screenH = (int)hudViewport.getWorldHeight();
+        if (screenW <= 0 || screenH <= 0) return;
+
+        if (hudBuffer == null || hudBuffer.getWidth() != screenW || hudBuffer.getHeight() != screenH) {
+            if (hudBuffer != null) hudBuffer.dispose();
+            hudBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, screenW, screenH, false);
+            hudDirty = true;
+        }
+
+        // Redraw the cached HUD only when something changes at its displayed precision
+        if (updateHudKey(lander, screenH) || hudDirty) {
+            hudBuffer.begin();
+            Gdx.gl.glClearColor(0, 0, 0, 0);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            drawHudContents(lander, screenW, screenH);
+            hudBuffer.end();
+            hudViewport.apply();
+            hudDirty = false;
+        }
+
+        // The HUD is opaque; blit without blending so its baked alpha doesn't leak through
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(hudBuffer.getColorBufferTexture(), 0, 0, screenW, screenH, 0, 0, screenW, screenH, false, true);
+        batch.end();
+        batch.enableBlending();
+    }
+
+    private boolean updateHudKey(LanderState lander, int screenH) {
+        float barH = screenH - 35;
+        int k = 0;
+        boolean changed = false;
+        changed |= setHudKey(k++, HudFormat.quantize(lander.y, 1));
+        changed |= setHudKey(k++, HudFormat.quantize(radarAltitude(lander), 1));
+        changed |= setHudKey(k++, HudFormat.quantize(lander.vx, 1));
+        changed |= setHudKey(k++, HudFormat.quantize(lander.vy, 1));
+        changed |= setHudKey(k++, lander.flyByWireMode ? HudFormat.quantize(lander.goalAngle, 0) : Long.MIN_VALUE);
+        // Gauges: half-degree needle/caret/ribbon steps and whole-pixel bars
+        changed |= setHudKey(k++, Math.round(lander.vy * 18f * 2f));
+        changed |= setHudKey(k++, Math.abs(lander.smoothedVerticalAccel) > 0.01f ? Math.round(lander.smoothedVerticalAccel * 90f * 2f) : Long.MIN_VALUE);
+        changed |= setHudKey(k++, lander.flyByWireMode ? Math.round(lander.goalVy * 18f * 2f) : Long.MIN_VALUE);
+        changed |= setHudKey(k++, Math.round(MathUtils.clamp(lander.smoothedThrottle, 0f, 1f) * barH));
+        changed |= setHudKey(k++, Math.round(MathUtils.clamp(lander.fuelMass / LanderState.TOTAL_FUEL_MASS, 0f, 1f) * barH));
+        changed |= setHudKey(k++, (lander.flyByWireMode ? 1 : 0) | (lander.landed ? 2 : 0) | (lander.alive ? 4 : 0));
+        return changed;
+    }
+
+    /** Gap between the bottom of the hull and the highest ground under it. */
+    private float radarAltitude(LanderState lander) {
+        return terrain.radarAltitude(lander.x, lander.y - Lander.LANDER_HALF_H, Lander.LANDER_HALF_W);
+    }
+
+    private boolean setHudKey(int i, long value) {
+        if (hudKey[i] == value) return false;
+        hudKey[i] = value;
+        return true;
+    }
+
+    private void drawHudContents(LanderState lander, float screenW, float screenH) {
         // 1. Dashboard Background
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
         shapeRenderer.setColor(0.1f, 0.1f, 0.15f, 1f);
@@ -388,15 +388,23 @@ public class Render {
         float textY = screenH / 2f + 5;
         
         // We draw right-to-left
-        String alt = String.format("ALT: %6.1f m", lander.y);
-        String goal = lander.flyByWireMode ? 
-                      String.format("G-ANG: %3.0f°", lander.goalAngle) : "";
-        String vel = String.format("V: %+5.1f / %+5.1f", lander.vx, lander.vy);
+        altText.setLength(0);
+        HudFormat.appendFixed(altText.append("ALT: "), lander.y, 6, 1, false).append(" m");
+        radarText.setLength(0);
+        HudFormat.appendFixed(radarText.append("RALT: "), radarAltitude(lander), 6, 1, false).append(" m");
+        goalText.setLength(0);
+        if (lander.flyByWireMode) {
+            HudFormat.appendFixed(goalText.append("G-ANG: "), lander.goalAngle, 3, 0, false).append('°');
+        }
+        velText.setLength(0);
+        HudFormat.appendFixed(velText.append("V: "), lander.vx, 5, 1, true).append(" / ");
+        HudFormat.appendFixed(velText, lander.vy, 5, 1, true);
 
         // Calculate positions (approximate widths)
-        font.draw(batch, alt, rightX - 150, textY);
-        font.draw(batch, goal, rightX - 380, textY);
-        font.draw(batch, vel, rightX - 610, textY);
+        font.draw(batch, altText, rightX - 150, textY);
+        font.draw(batch, radarText, rightX - 150, textY - font.getLineHeight());
+        font.draw(batch, goalText, rightX - 380, textY);
+        font.draw(batch, velText, rightX - 610, textY);
         
         // 5. Endgame Messages (Overlay on HUD or center)
         if (lander.landed) font.draw(batch, "LANDED! Press ESC to quit.", screenW/2f - 100, screenH/2f + 5);
@@ -493,6 +501,99 @@ public class Render {
         shapeRenderer.circle(x, y, 3);
     }
 
+    public void setPerf(PerfStats perf, GameLoop loop) {
+        this.perf = perf;
+        this.loop = loop;
+    }
+
+    public void togglePerfOverlay() {
+        showPerf = !showPerf;
+    }
+
+    private void drawPerfOverlay() {
+        float screenW = hudViewport.getWorldWidth();
+        float screenH = hudViewport.getWorldHeight();
+        float left = screenW / 2f;
+        float lineH = font.getLineHeight();
+
+        Gdx.gl.glEnable(GL20.GL_BLEND); // may have been turned off by a batch.end() in the HUD
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(0f, 0f, 0f, 0.85f);
+        shapeRenderer.rect(left, 0, screenW - left, screenH);
+        shapeRenderer.end();
+
+        batch.begin();
+        font.setColor(Color.LIME);
+        float y = screenH - 4;
+        font.draw(batch, perfRow("FRAME ms ", perf.frameNanos, 1e6, 1), left + 10, y);
+        font.draw(batch, perfRow("RENDER ms", perf.renderNanos, 1e6, 1), left + 10, y -= lineH);
+        font.draw(batch, perfRow("STEP us  ", perf.worldStepNanos, 1e3, 0), left + 10, y -= lineH);
+        font.draw(batch, perfRow("CTRL us  ", perf.controllerNanos, 1e3, 0), left + 10, y -= lineH);
+
+        perfText.setLength(0);
+        perfText.append("STEPS/FRAME max ").append(perf.stepsPerFrame.max())
+                .append("  clamped ").append(loop.clampedFrames)
+                .append("  dropped ").append(loop.droppedSteps);
+        font.draw(batch, perfText, left + 10, y -= lineH);
+
+        perfText.setLength(0);
+        perfText.append("GC ").append(perf.gcCollections()).append(" (").append(perf.gcPauseMillis()).append(" ms)");
+        font.draw(batch, perfText, left + 10, y -= lineH);
+        font.setColor(Color.WHITE);
+        batch.end();
+    }
+
+    /** Null hides the plan. */
+    public void setPlanner(Planner planner) {
+        this.planner = planner;
+    }
+
+    private void drawPlanPath(Planner.Plan plan) {
+        float[] p = plan.path;
+        int last = plan.pathPoints - 1;
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        if (plan.outcome == BatchRunner.OUTCOME_LANDED) shapeRenderer.setColor(0f, 1f, 1f, 0.6f);
+        else shapeRenderer.setColor(1f, 0.55f, 0f, 0.6f);
+        for (int i = 1; i <= last; i++) {
+            shapeRenderer.line(p[2 * i - 2], p[2 * i - 1], p[2 * i], p[2 * i + 1]);
+        }
+        // Cross where the rollout ended
+        float ex = p[2 * last], ey = p[2 * last + 1];
+        shapeRenderer.line(ex - 1.5f, ey - 1.5f, ex + 1.5f, ey + 1.5f);
+        shapeRenderer.line(ex - 1.5f, ey + 1.5f, ex + 1.5f, ey - 1.5f);
+        shapeRenderer.end();
+    }
+
+    private void drawPlanAdvice(Planner.Plan plan) {
+        float screenH = hudViewport.getWorldHeight();
+        planText.setLength(0);
+        planText.append("PLAN ").append(BatchRunner.OUTCOME_NAMES[plan.outcome]);
+        if (plan.outcome == BatchRunner.OUTCOME_LANDED) {
+            HudFormat.appendFixed(planText.append(' '), plan.fuelUsed, 4, 0, false).append(" kg");
+        }
+        HudFormat.appendFixed(planText.append("  VY "), plan.goalVy, 4, 1, true);
+        HudFormat.appendFixed(planText.append("  ANG "), plan.goalAngle, 3, 0, true).append('°');
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.begin();
+        font.setColor(plan.outcome == BatchRunner.OUTCOME_LANDED ? Color.CYAN : Color.ORANGE);
+        font.draw(batch, planText, 280, screenH / 2f + 5 - font.getLineHeight());
+        font.setColor(Color.WHITE);
+        batch.end();
+    }
+
+    private StringBuilder perfRow(String label, Histogram h, double unit, int decimals) {
+        perfText.setLength(0);
+        perfText.append(label);
+        HudFormat.appendFixed(perfText.append("  p50"), (float)(h.percentile(0.5) / unit), 6, decimals, false);
+        HudFormat.appendFixed(perfText.append("  p99"), (float)(h.percentile(0.99) / unit), 6, decimals, false);
+        HudFormat.appendFixed(perfText.append("  p999"), (float)(h.percentile(0.999) / unit), 6, decimals, false);
+        HudFormat.appendFixed(perfText.append("  max"), (float)(h.max() / unit), 6, decimals, false);
+        return perfText;
+    }
+
     public void resize(int width, int height) {
         int hudHeight = (int)(height * 0.2f);
         int worldHeight = height - hudHeight;
@@ -511,5 +612,10 @@ public class Render {
         if (debugRenderer != null) debugRenderer.dispose();
         batch.dispose();
         font.dispose();
+        meshShader.dispose();
+        terrainMesh.dispose();
+        starfield.dispose();
+        meteors.dispose();
+        if (hudBuffer != null) hudBuffer.dispose();
     }
 }
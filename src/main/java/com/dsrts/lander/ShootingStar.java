@@ -1,12 +1,14 @@
 package com.dsrts.lander;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
+/**
+ * One meteor. Instances are pooled by {@link MeteorShower} and reused through spawn();
+ * the trail is a fixed ring buffer of positions, and rendering emits triangles into a
+ * shared vertex array instead of drawing directly, so nothing here allocates after construction.
+ */
 public class ShootingStar {
     private float x, y;
     private float vx, vy;
@@ -17,49 +19,72 @@ public class ShootingStar {
     private float size;
     private static final float ANGLE = 30f;
     private static final float SPEED = 50f;
-    private static final int TRAIL_LENGTH = 10;
-    private List<TrailParticle> trail;
+    static final int TRAIL_LENGTH = 10;
     private boolean poofing;
     private float poofTime;
     private static final float POOF_DURATION = 0.3f;
-    
-    private static class TrailParticle {
-        float x, y;
-        float alpha;
-        
-        TrailParticle(float x, float y, float alpha) {
-            this.x = x;
-            this.y = y;
-            this.alpha = alpha;
+
+    // Trail ring buffer; slot trailHead is the newest particle
+    private final float[] trailX = new float[TRAIL_LENGTH];
+    private final float[] trailY = new float[TRAIL_LENGTH];
+    private int trailHead = 0;
+    private int trailCount = 0;
+
+    // A particle's alpha only depends on its age: newest is 0.85, each update fades by 0.85
+    private static final float[] TRAIL_ALPHA = new float[TRAIL_LENGTH];
+    private static final int TRAIL_SEGMENTS = 6;
+    private static final int CORE_SEGMENTS = 8;
+    private static final float[] TRAIL_COS = new float[TRAIL_SEGMENTS + 1];
+    private static final float[] TRAIL_SIN = new float[TRAIL_SEGMENTS + 1];
+    private static final float[] STAR_COS = new float[CORE_SEGMENTS + 1];
+    private static final float[] STAR_SIN = new float[CORE_SEGMENTS + 1];
+    static {
+        float a = 1f;
+        for (int i = 0; i < TRAIL_LENGTH; i++) {
+            a *= 0.85f;
+            TRAIL_ALPHA[i] = a;
+        }
+        for (int i = 0; i <= TRAIL_SEGMENTS; i++) {
+            TRAIL_COS[i] = MathUtils.cos(MathUtils.PI2 * i / TRAIL_SEGMENTS);
+            TRAIL_SIN[i] = MathUtils.sin(MathUtils.PI2 * i / TRAIL_SEGMENTS);
+        }
+        for (int i = 0; i <= CORE_SEGMENTS; i++) {
+            STAR_COS[i] = MathUtils.cos(MathUtils.PI2 * i / CORE_SEGMENTS);
+            STAR_SIN[i] = MathUtils.sin(MathUtils.PI2 * i / CORE_SEGMENTS);
         }
     }
 
+    /** Upper bound of floats emit() writes for one star (x, y, packed colour per vertex). */
+    static final int MAX_FLOATS = (TRAIL_LENGTH * TRAIL_SEGMENTS + CORE_SEGMENTS * 2) * 3 * 3;
+
     public ShootingStar() {
         this.active = false;
-        this.trail = new ArrayList<>();
         this.size = 1.0f; // 1 meter
     }
 
-    public void spawn(float landerX) {
-        Random rand = new Random();
+    public void spawn(float landerX, Random rand) {
+        spawn(landerX, Lander.WORLD_HEIGHT_M * 0.8f, rand);
+    }
+
+    public void spawn(float startX, float startY, Random rand) {
         this.goingRight = rand.nextBoolean();
-        this.x = landerX;
-        this.y = Lander.WORLD_HEIGHT_M * 0.8f;
-        
+        this.x = startX;
+        this.y = startY;
+
         float angleRad = MathUtils.degreesToRadians * ANGLE;
         this.vx = SPEED * MathUtils.cos(angleRad) * (goingRight ? 1 : -1);
         this.vy = -SPEED * MathUtils.sin(angleRad);
-        
+
         this.distanceTraveled = 0;
         this.maxDistance = 60f; // 60 meters travel
         this.active = true;
         this.poofing = false;
-        this.trail.clear();
+        this.trailCount = 0;
     }
 
     public void update(float dt) {
         if (!active) return;
-        
+
         if (poofing) {
             poofTime += dt;
             if (poofTime >= POOF_DURATION) {
@@ -72,14 +97,11 @@ public class ShootingStar {
         float oldY = y;
         x += vx * dt;
         y += vy * dt;
-        
-        trail.add(0, new TrailParticle(oldX, oldY, 1.0f));
-        if (trail.size() > TRAIL_LENGTH) {
-            trail.remove(trail.size() - 1);
-        }
-        for (TrailParticle particle : trail) {
-            particle.alpha *= 0.85f;
-        }
+
+        trailHead = (trailHead + TRAIL_LENGTH - 1) % TRAIL_LENGTH;
+        trailX[trailHead] = oldX;
+        trailY[trailHead] = oldY;
+        if (trailCount < TRAIL_LENGTH) trailCount++;
 
         float dx = x - oldX;
         float dy = y - oldY;
@@ -90,67 +112,55 @@ public class ShootingStar {
         }
     }
 
-    public void render(ShapeRenderer shapeRenderer) {
-        if (!active) return;
+    /** Writes this star's triangles into out at offset; returns the new offset. */
+    public int emit(float[] out, int offset) {
+        if (!active) return offset;
 
-        // Render Trail
-        shapeRenderer.set(ShapeRenderer.ShapeType.Filled);
+        // Trail
         float trailWidth = size * 0.3f;
-        for (TrailParticle p : trail) {
-            shapeRenderer.setColor(1.0f, 1.0f, 0.8f, p.alpha * 0.4f);
-            shapeRenderer.circle(p.x, p.y, trailWidth, 6);
+        for (int age = 0; age < trailCount; age++) {
+            int slot = (trailHead + age) % TRAIL_LENGTH;
+            float color = Color.toFloatBits(1.0f, 1.0f, 0.8f, TRAIL_ALPHA[age] * 0.4f);
+            offset = fan(out, offset, trailX[slot], trailY[slot], trailWidth, TRAIL_COS, TRAIL_SIN, TRAIL_SEGMENTS, color);
         }
 
         if (poofing) {
-            renderPoof(shapeRenderer);
-            return;
+            float progress = poofTime / POOF_DURATION;
+            float expandedSize = size * (1.0f + progress * 3.0f);
+            return star(out, offset, expandedSize, Color.toFloatBits(1.0f, 1.0f, 0.8f, 1.0f - progress));
         }
 
-        // Render Star shape (8 points)
-        shapeRenderer.setColor(1.0f, 1.0f, 0.8f, 1.0f);
-        float longPoint = size;
-        float shortPoint = size * 0.4f;
-        
-        // Draw 8 points as triangles
+        // Star shape (8 points) and core
+        offset = star(out, offset, size, Color.toFloatBits(1.0f, 1.0f, 0.8f, 1.0f));
+        return fan(out, offset, x, y, size * 0.3f, STAR_COS, STAR_SIN, CORE_SEGMENTS, Color.WHITE.toFloatBits());
+    }
+
+    private int star(float[] out, int offset, float longPoint, float color) {
+        float shortPoint = longPoint * 0.4f;
         for (int i = 0; i < 8; i++) {
-            float angle1 = i * MathUtils.PI / 4f;
-            float angle2 = (i + 1) * MathUtils.PI / 4f;
             float r1 = (i % 2 == 0) ? longPoint : shortPoint;
             float r2 = (i % 2 == 0) ? shortPoint : longPoint;
-            
-            shapeRenderer.triangle(x, y, 
-                                   x + MathUtils.cos(angle1) * r1, y + MathUtils.sin(angle1) * r1,
-                                   x + MathUtils.cos(angle2) * r2, y + MathUtils.sin(angle2) * r2);
+            offset = vertex(out, offset, x, y, color);
+            offset = vertex(out, offset, x + STAR_COS[i] * r1, y + STAR_SIN[i] * r1, color);
+            offset = vertex(out, offset, x + STAR_COS[i + 1] * r2, y + STAR_SIN[i + 1] * r2, color);
         }
-
-        // Core
-        shapeRenderer.setColor(Color.WHITE);
-        shapeRenderer.circle(x, y, size * 0.3f, 8);
-        
-        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
+        return offset;
     }
 
-    private void renderPoof(ShapeRenderer shapeRenderer) {
-        float progress = poofTime / POOF_DURATION;
-        float alpha = 1.0f - progress;
-        float expandedSize = size * (1.0f + progress * 3.0f);
-        
-        shapeRenderer.setColor(1.0f, 1.0f, 0.8f, alpha);
-        
-        float longPoint = expandedSize;
-        float shortPoint = expandedSize * 0.4f;
-        
-        for (int i = 0; i < 8; i++) {
-            float angle1 = i * MathUtils.PI / 4f;
-            float angle2 = (i + 1) * MathUtils.PI / 4f;
-            float r1 = (i % 2 == 0) ? longPoint : shortPoint;
-            float r2 = (i % 2 == 0) ? shortPoint : longPoint;
-            
-            shapeRenderer.triangle(x, y, 
-                                   x + MathUtils.cos(angle1) * r1, y + MathUtils.sin(angle1) * r1,
-                                   x + MathUtils.cos(angle2) * r2, y + MathUtils.sin(angle2) * r2);
+    private static int fan(float[] out, int offset, float cx, float cy, float r, float[] cos, float[] sin, int segments, float color) {
+        for (int i = 0; i < segments; i++) {
+            offset = vertex(out, offset, cx, cy, color);
+            offset = vertex(out, offset, cx + cos[i] * r, cy + sin[i] * r, color);
+            offset = vertex(out, offset, cx + cos[i + 1] * r, cy + sin[i + 1] * r, color);
         }
-        shapeRenderer.set(ShapeRenderer.ShapeType.Line);
+        return offset;
+    }
+
+    private static int vertex(float[] out, int offset, float vx, float vy, float color) {
+        out[offset] = vx;
+        out[offset + 1] = vy;
+        out[offset + 2] = color;
+        return offset + 3;
     }
 
     public boolean isActive() {
@@ -0,0 +1,251 @@
+package com.dsrts.lander;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loopback TCP server for driving landers from other processes. Each connection is
+ * one session with its own {@link LanderEnv}, served by its own thread: a virtual
+ * thread when the runtime has them, otherwise a small-stack platform thread from a
+ * cached pool. The world streams its terrain as {@link TerrainChunks}, so a session
+ * costs one height array plus a few chunks of Box2D chain however long it runs.
+ *
+ * The protocol is binary and big-endian. Every request is an opcode byte and its
+ * arguments; every response starts with a status byte, {@link #OK} or {@link #ERROR}
+ * followed by a UTF message. Requests are answered strictly in order and responses
+ * are only flushed once no further request is waiting, so a client can write a whole
+ * batch of steps and read all the answers in one round trip.
+ *
+ *   RESET  long seed            -> status, observation
+ *   STEP   float left, right    -> status, observation, float reward, byte done
+ *   OBSERVE                     -> status, observation, byte done
+ *   QUIT                        -> (connection closed)
+ *
+ * Observations are {@link LanderEnv#OBS_SIZE} floats and done is a LanderEnv.DONE_*
+ * code. RESET derives the scenario and terrain from the seed as {@link #scenario} does,
+ * and reuses the session's world while the terrain seed stays the same.
+ *
+ * Usage: SimServer [--port N] [--max-sessions N] [--max-steps N]
+ */
+public class SimServer implements Closeable {
+    public static final byte RESET = 1, STEP = 2, OBSERVE = 3, QUIT = 4;
+    public static final byte OK = 0, ERROR = 1;
+
+    static final long PLATFORM_STACK_BYTES = 256 * 1024; // sessions never recurse deeply
+
+    public final int maxSessions;
+    public final long maxEpisodeSteps;
+    public final boolean virtualThreads;
+
+    private final ServerSocket server;
+    private final ThreadFactory virtualFactory; // null when falling back to platform threads
+    private final ExecutorService platformPool;  // null when on virtual threads
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final Thread acceptor;
+
+    public SimServer(int port, int maxSessions, long maxEpisodeSteps) throws IOException {
+        this.maxSessions = maxSessions;
+        this.maxEpisodeSteps = maxEpisodeSteps;
+        server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+        virtualFactory = virtualThreadFactory();
+        virtualThreads = virtualFactory != null;
+        platformPool = virtualThreads ? null : Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(null, r, "sim-session-" + sessionIds.incrementAndGet(), PLATFORM_STACK_BYTES);
+            t.setDaemon(true);
+            return t;
+        });
+        acceptor = new Thread(this::acceptLoop, "sim-server");
+        acceptor.setDaemon(true);
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    public int sessions() {
+        return open.size();
+    }
+
+    public void start() {
+        acceptor.start();
+    }
+
+    /** Stops accepting and closes every session's socket; sessions free their worlds as they exit. */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket s : open) s.close();
+        if (platformPool != null) platformPool.shutdown();
+    }
+
+    /** The start state and terrain seed a RESET with this seed flies. */
+    public static BatchRunner.Scenario scenario(long seed) {
+        return BatchRunner.Scenario.random(new Random(seed), Terrain.padCenters, Lander.WORLD_WIDTH_M);
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                break; // closed
+            }
+            if (open.size() >= maxSessions) {
+                refuse(socket);
+                continue;
+            }
+            open.add(socket);
+            Runnable session = () -> serve(socket);
+            if (virtualThreads) {
+                virtualFactory.newThread(session).start();
+            } else {
+                platformPool.execute(session);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        LanderEnv env = null;
+        long terrainSeed = 0;
+        FloatBuffer obs = FloatBuffer.allocate(LanderEnv.OBS_SIZE);
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                int op = in.read();
+                if (op < 0 || op == QUIT) break;
+                switch (op) {
+                    case RESET: {
+                        BatchRunner.Scenario s = scenario(in.readLong());
+                        if (env == null || terrainSeed != s.terrainSeed) {
+                            if (env != null) env.dispose();
+                            float[] heights = new float[Terrain.terrainHeights.length];
+                            Terrain.generateHeights(heights, s.terrainSeed);
+                            env = new LanderEnv(heights, true);
+                            terrainSeed = s.terrainSeed;
+                        }
+                        env.reset(s, obs, 0);
+                        out.writeByte(OK);
+                        writeObservation(out, obs);
+                        break;
+                    }
+                    case STEP: {
+                        float left = in.readFloat();
+                        float right = in.readFloat();
+                        if (env == null) {
+                            error(out, "STEP before RESET");
+                            break;
+                        }
+                        byte done = env.step(left, right, maxEpisodeSteps, obs, 0);
+                        out.writeByte(OK);
+                        writeObservation(out, obs);
+                        out.writeFloat(env.reward);
+                        out.writeByte(done);
+                        break;
+                    }
+                    case OBSERVE: {
+                        if (env == null) {
+                            error(out, "OBSERVE before RESET");
+                            break;
+                        }
+                        env.observe(obs, 0);
+                        out.writeByte(OK);
+                        writeObservation(out, obs);
+                        out.writeByte(env.done);
+                        break;
+                    }
+                    default:
+                        // Argument lengths depend on the opcode, so the stream cannot be resynchronised
+                        error(out, "Unknown opcode " + op);
+                        out.flush();
+                        return;
+                }
+                if (in.available() == 0) out.flush(); // end of the client's batch
+            }
+            out.flush();
+        } catch (EOFException | SocketException e) {
+            // Client went away mid-request, or the server is closing
+        } catch (IOException e) {
+            System.err.println("Session " + socket.getRemoteSocketAddress() + " failed: " + e);
+        } finally {
+            if (env != null) env.dispose();
+            open.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void writeObservation(DataOutputStream out, FloatBuffer obs) throws IOException {
+        for (int i = 0; i < LanderEnv.OBS_SIZE; i++) out.writeFloat(obs.get(i));
+    }
+
+    private static void error(DataOutputStream out, String message) throws IOException {
+        out.writeByte(ERROR);
+        out.writeUTF(message);
+    }
+
+    private static void refuse(Socket socket) {
+        try (Socket s = socket) {
+            DataOutputStream out = new DataOutputStream(s.getOutputStream());
+            error(out, "Server full");
+            out.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Thread.ofVirtual().factory() on runtimes that have it; the build targets Java 17, so by reflection. */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "sim-session-", 1L);
+            return (ThreadFactory)builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // before Java 21, or virtual threads still in preview
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = 7777;
+        int maxSessions = 4096;
+        long maxSteps = 60L * 60 * 2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--max-sessions": maxSessions = Integer.parseInt(args[++i]); break;
+                case "--max-steps": maxSteps = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        SimServer server = new SimServer(port, maxSessions, maxSteps);
+        server.start();
+        System.err.printf("listening on %s:%d, %s threads, up to %d sessions%n",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.port(),
+                server.virtualThreads ? "virtual" : "platform", maxSessions);
+        server.acceptor.join();
+    }
+}
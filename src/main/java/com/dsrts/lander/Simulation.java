@@ -0,0 +1,269 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * One self-contained landing: a Box2D world, its terrain body and the lander.
+ * Has no dependency on the Gdx application, so any number of these can be
+ * stepped in parallel as long as each one stays on a single thread.
+ */
+public class Simulation {
+    public static final double DT = 1.0 / 60.0;
+
+    // Contacts are the lander's only constraints, so free flight needs no solver iterations
+    // to speak of. Box2D creates a contact as soon as fattened AABBs overlap, a step before
+    // it is solved, so a world with no contacts cannot have anything to solve this step.
+    static final int CONTACT_VELOCITY_ITERATIONS = 6, CONTACT_POSITION_ITERATIONS = 2;
+    static final int FREE_VELOCITY_ITERATIONS = 1, FREE_POSITION_ITERATIONS = 1;
+
+    // Hybrid mode hands the lander to Box2D once its bounding circle comes within this of
+    // the highest ground it could reach in HANDOFF_LOOKAHEAD, and takes it back once it is
+    // RELEASE_MARGIN further away again with no contact left
+    static final float HANDOFF_CLEARANCE = 2f;   // m
+    static final float HANDOFF_LOOKAHEAD = 1f;   // s at the current speed
+    static final float RELEASE_MARGIN = 3f;      // m
+    static final float BOUNDING_RADIUS = (float)Math.sqrt(Lander.LANDER_HALF_W * Lander.LANDER_HALF_W
+            + Lander.LANDER_HALF_H * Lander.LANDER_HALF_H);
+
+    public final World world;
+    public final float[] terrainHeights; // null over a MapFile
+    public final float worldWidth;
+    public final int[] padCenters;
+    public final TerrainIndex terrain;
+    public final Body terrainBody;
+    public final TerrainChunks chunks; // null when the whole surface is one chain
+    public final LanderState lander;
+
+    public FlightRecorder recorder; // when set, every step(int) input is logged
+    public Telemetry telemetry;     // when set, every step's state is captured
+    public PerfStats perf;          // when set, world.step and controller time are recorded
+
+    public long steps = 0;
+    public long restingSteps = 0;     // steps skipped with the lander parked and asleep
+    public long contactFreeSteps = 0; // Box2D steps with no contact, solved with the reduced iteration counts
+    public long analyticSteps = 0;    // steps integrated by FreeFlight instead of Box2D
+
+    /** When set, free flight away from the ground is integrated by {@link FreeFlight} and the World is left idle. */
+    public boolean hybrid = false;
+    private final FreeFlight freeFlight = new FreeFlight();
+
+    public Simulation(float[] terrainHeights) {
+        this(terrainHeights, Lander.WORLD_WIDTH_M, Terrain.padCenters, false);
+    }
+
+    /**
+     * @param chunked stream the surface as {@link TerrainChunks} around the lander rather
+     *                than one chain; required for maps much wider than the standard 750 m
+     */
+    public Simulation(float[] terrainHeights, float worldWidth, int[] padCenters, boolean chunked) {
+        this(terrainHeights, HeightField.of(terrainHeights), worldWidth, padCenters, Terrain.padWidth,
+                new TerrainIndex(terrainHeights, worldWidth, padCenters, Terrain.padWidth), chunked);
+    }
+
+    /**
+     * Flies over a region of a {@link MapFile}: the surface is streamed as {@link TerrainChunks}
+     * and the region's index is shared, so any number of simulations can use one mapping.
+     * terrainHeights is null.
+     */
+    public Simulation(MapFile.Region region) {
+        this(null, region, region.worldWidth, region.padCenters, region.padWidth, region.index(), true);
+    }
+
+    private Simulation(float[] terrainHeights, HeightField heights, float worldWidth, int[] padCenters, int padWidth,
+                       TerrainIndex terrain, boolean chunked) {
+        this.terrainHeights = terrainHeights;
+        this.worldWidth = worldWidth;
+        this.padCenters = padCenters;
+        this.terrain = terrain;
+
+        // Initialize Box2D World with Moon Gravity
+        world = new World(new Vector2(0, -Physics.GRAVITY), true);
+
+        lander = new LanderState(heights, worldWidth, Lander.WORLD_HEIGHT_M, Lander.LANDER_WIDTH_M,
+                Lander.LANDER_HEIGHT_M, Lander.LANDER_HALF_W, Lander.LANDER_HALF_H);
+
+        if (chunked) {
+            chunks = new TerrainChunks(world, heights, worldWidth, padCenters, padWidth,
+                    TerrainChunks.DEFAULT_CHUNK_SAMPLES, TerrainChunks.DEFAULT_MAX_LIVE_CHUNKS);
+            chunks.update(lander.x);
+            terrainBody = chunks.getBody();
+        } else {
+            chunks = null;
+            terrainBody = Terrain.createTerrainBody(world, terrainHeights, worldWidth, padCenters, padWidth);
+        }
+
+        lander.body = createLanderBody(world, lander);
+
+        world.setContactListener(new LandingContacts());
+    }
+
+    /** Moves the lander to a new start state before the first step. */
+    public void place(float x, float y, float vx, float vy, float angle) {
+        leaveFreeFlight();
+        lander.x = x; lander.y = y;
+        lander.vx = vx; lander.vy = vy;
+        lander.angle = angle;
+        lander.rotCos = MathUtils.cosDeg(angle);
+        lander.rotSin = MathUtils.sinDeg(angle);
+        lander.touchdownSpeed = -1f;
+        lander.prevX = x; lander.prevY = y; lander.prevAngle = angle;
+        lander.body.setTransform(x, y, angle * MathUtils.degreesToRadians);
+        lander.body.setLinearVelocity(vx, vy);
+        if (chunks != null) chunks.update(x);
+    }
+
+    /** Puts this simulation's lander into from's state, body included, so the world can be reused. */
+    public void reset(LanderState from) {
+        leaveFreeFlight();
+        lander.copyFrom(from);
+        lander.appliedMass = -1f; // push mass data on the next force application
+        Body body = lander.body;
+        body.setTransform(from.x, from.y, from.angle * MathUtils.degreesToRadians);
+        body.setLinearVelocity(from.vx, from.vy);
+        body.setAngularVelocity(from.omega * MathUtils.degreesToRadians);
+        body.setAwake(true);
+        if (chunks != null) chunks.update(from.x);
+        steps = 0;
+    }
+
+    /** Applies one tick of {@link Controls} input, then steps. */
+    public void step(int input) {
+        if (recorder != null) recorder.record(input);
+        Controls.apply(lander, input);
+        step();
+    }
+
+    /** Advances the simulation by one fixed step of {@link #DT}. */
+    public void step() {
+        tick(false);
+    }
+
+    /**
+     * Advances one step with the engine throttles commanded directly, clamped to [-0.5, 1],
+     * in place of either controller. Unlike controller output, they act on this step's
+     * world step, so the state after it already shows their effect.
+     */
+    public void step(float throttleLeft, float throttleRight) {
+        lander.throttleLeft = MathUtils.clamp(throttleLeft, -0.5f, 1f);
+        lander.throttleRight = MathUtils.clamp(throttleRight, -0.5f, 1f);
+        lander.throttle = (lander.throttleLeft + lander.throttleRight) / 2f;
+        tick(true);
+    }
+
+    private void tick(boolean direct) {
+        lander.prevX = lander.x;
+        lander.prevY = lander.y;
+        lander.prevAngle = lander.angle;
+        if (lander.alive) {
+            if (chunks != null) chunks.update(lander.x);
+
+            long t0 = perf != null ? System.nanoTime() : 0L;
+            // Direct throttles push their forces from the state synced by the last step
+            if (direct) Physics.applyForces(lander, DT);
+            // Step Box2D World, unless nothing in it can move
+            lander.thrustPending = false;
+            if (atRest(lander)) {
+                restingSteps++;
+            } else if (lander.freeFlight != null) {
+                freeFlight.step((float)DT, -Physics.GRAVITY);
+                analyticSteps++;
+            } else if (stepWorld(world)) {
+                contactFreeSteps++;
+            }
+            // Switch between a step and the controller, when no force is pending on either side
+            if (hybrid) chooseIntegrator();
+
+            long t1 = perf != null ? System.nanoTime() : 0L;
+            if (direct) {
+                Physics.syncState(lander, DT);
+            } else if (lander.flyByWireMode) {
+                Physics.flybywire(lander, DT);
+            } else {
+                Physics.advance(lander, DT);
+            }
+            if (perf != null) {
+                perf.worldStepNanos.record(t1 - t0);
+                perf.controllerNanos.record(System.nanoTime() - t1);
+            }
+        }
+        if (telemetry != null) telemetry.capture(steps, lander);
+        steps++;
+    }
+
+    public void dispose() {
+        world.dispose();
+    }
+
+    /** One world step, with full solver iterations only while there is a contact; true if there was none. */
+    static boolean stepWorld(World world) {
+        if (world.getContactCount() > 0) {
+            world.step((float)DT, CONTACT_VELOCITY_ITERATIONS, CONTACT_POSITION_ITERATIONS);
+            return false;
+        }
+        world.step((float)DT, FREE_VELOCITY_ITERATIONS, FREE_POSITION_ITERATIONS);
+        return true;
+    }
+
+    /**
+     * Hands the lander between Box2D and {@link FreeFlight} by its clearance over the
+     * highest ground within reach, using the state synced by the last controller run.
+     */
+    void chooseIntegrator() {
+        float speed = Math.abs(lander.vx) + Math.abs(lander.vy);
+        float reach = BOUNDING_RADIUS + speed * HANDOFF_LOOKAHEAD;
+        float clearance = lander.y - BOUNDING_RADIUS - terrain.maxHeight(lander.x - reach, lander.x + reach);
+        float threshold = HANDOFF_CLEARANCE + speed * HANDOFF_LOOKAHEAD;
+        if (lander.freeFlight != null) {
+            if (clearance < threshold) leaveFreeFlight();
+        } else if (!lander.landed && clearance > threshold + RELEASE_MARGIN && world.getContactCount() == 0) {
+            freeFlight.load(lander.body);
+            lander.freeFlight = freeFlight;
+        }
+    }
+
+    /** Gives the lander back to its Box2D body, if FreeFlight has it. */
+    void leaveFreeFlight() {
+        if (lander.freeFlight == null) return;
+        freeFlight.store(lander.body, lander.massData);
+        lander.freeFlight = null;
+    }
+
+    /** Landed, engines off and Box2D has put the body to sleep: a world step would change nothing. */
+    static boolean atRest(LanderState lander) {
+        return lander.landed && lander.throttleLeft == 0f && lander.throttleRight == 0f && !lander.body.isAwake();
+    }
+
+    /** Lander box tagged with its state for {@link LandingContacts}; collides with terrain only. */
+    static Body createLanderBody(World world, LanderState lander) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.DynamicBody;
+        bodyDef.position.set(lander.x, lander.y);
+        bodyDef.angle = lander.angle * MathUtils.degreesToRadians;
+        bodyDef.linearDamping = 0.0f;
+        bodyDef.angularDamping = 0.0f;
+
+        Body body = world.createBody(bodyDef);
+
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(Lander.LANDER_HALF_W, Lander.LANDER_HALF_H);
+
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        fixtureDef.density = 1.0f;
+        fixtureDef.friction = 0.5f;
+        fixtureDef.restitution = 0.1f;
+        fixtureDef.filter.categoryBits = Terrain.CATEGORY_LANDER;
+        fixtureDef.filter.maskBits = Terrain.CATEGORY_TERRAIN;
+
+        body.createFixture(fixtureDef).setUserData(lander);
+        shape.dispose();
+
+        return body;
+    }
+}
@@ -0,0 +1,58 @@
+package com.dsrts.lander;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-built {@link Simulation}s over one terrain, so a branch starts from an existing
+ * World and terrain chain: acquire one, {@link SimulationSnapshot#restore} into it,
+ * fly it and release it. Acquire and release are safe from any thread; a simulation
+ * is only ever used by the thread that holds it.
+ */
+public class SimulationPool {
+    public final float[] terrainHeights;
+    public final float worldWidth;
+    public final int[] padCenters;
+    public final boolean chunked;
+
+    private final ConcurrentLinkedQueue<Simulation> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    public SimulationPool(float[] terrainHeights, float worldWidth, int[] padCenters, boolean chunked) {
+        this.terrainHeights = terrainHeights;
+        this.worldWidth = worldWidth;
+        this.padCenters = padCenters;
+        this.chunked = chunked;
+    }
+
+    /** Builds simulations up front until count are idle, so the first branches don't pay for it. */
+    public void prewarm(int count) {
+        for (int i = idle.size(); i < count; i++) idle.offer(create());
+    }
+
+    /** An idle simulation, or a new one when all are in use. Its state is whatever it was last left in. */
+    public Simulation acquire() {
+        Simulation sim = idle.poll();
+        return sim != null ? sim : create();
+    }
+
+    public void release(Simulation sim) {
+        idle.offer(sim);
+    }
+
+    /** Simulations built so far, idle or not. */
+    public int created() {
+        return created.get();
+    }
+
+    /** Disposes every idle simulation; call once all acquired ones have been released. */
+    public void dispose() {
+        Simulation sim;
+        while ((sim = idle.poll()) != null) sim.dispose();
+    }
+
+    private Simulation create() {
+        created.incrementAndGet();
+        return new Simulation(terrainHeights, worldWidth, padCenters, chunked);
+    }
+}
@@ -0,0 +1,170 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.MassData;
+
+/**
+ * Saves a {@link Simulation}'s complete flight state into {@link #SIZE} floats and
+ * restores it into any other Simulation on the same terrain, typically one from a
+ * {@link SimulationPool}, so forking a rollout costs a few JNI setters rather than a
+ * new World and terrain chain.
+ *
+ * A snapshot holds the body's transform, velocities and applied mass, the engine
+ * force still waiting for the next world step, and every LanderState flight and
+ * controller field. Gains are configuration, not state, and stay with the target.
+ * A lander in {@link FreeFlight} is captured from it rather than from the idle body.
+ * In free flight a restored simulation continues bit-identically; Box2D's contact
+ * list and sleep timer are not part of it, so a contact in progress is found again
+ * by the broad-phase during the next step.
+ */
+public class SimulationSnapshot {
+    static final int BODY_X = 0, BODY_Y = 1, BODY_ANGLE = 2, BODY_VX = 3, BODY_VY = 4, BODY_OMEGA = 5;
+    static final int X = 6, Y = 7, VX = 8, VY = 9, ANGLE = 10, OMEGA = 11, ROT_COS = 12, ROT_SIN = 13;
+    static final int PREV_X = 14, PREV_Y = 15, PREV_ANGLE = 16, PREV_VY = 17, VERTICAL_ACCEL = 18;
+    static final int INTEGRAL_VY = 19, DERIVATIVE_VY = 20, FILTERED_VY = 21;
+    static final int SMOOTHED_ACCEL = 22, SMOOTHED_THROTTLE = 23;
+    static final int FUEL = 24, CARGO = 25, THROTTLE = 26, THROTTLE_LEFT = 27, THROTTLE_RIGHT = 28;
+    static final int GOAL_VX = 29, GOAL_VY = 30, GOAL_ANGLE = 31, TOUCHDOWN_SPEED = 32, APPLIED_MASS = 33;
+    static final int FLAGS = 34, STEPS_LOW = 35, STEPS_HIGH = 36; // steps split so each half is exact in a float
+    public static final int SIZE = 37;
+
+    static final int ALIVE = 1, LANDED = 1 << 1, FBW = 1 << 2, AWAKE = 1 << 3, THRUST_PENDING = 1 << 4;
+    static final int UP = 1 << 5, DOWN = 1 << 6, LEFT = 1 << 7, RIGHT = 1 << 8, SPACE = 1 << 9;
+    static final int STEPS_SPLIT = 20;
+
+    /** Exact capture of sim, body state included. */
+    public static void capture(Simulation sim, float[] out, int offset) {
+        LanderState lander = sim.lander;
+        FreeFlight free = lander.freeFlight;
+        if (free != null) {
+            out[offset + BODY_X] = free.x;
+            out[offset + BODY_Y] = free.y;
+            out[offset + BODY_ANGLE] = free.angle;
+            out[offset + BODY_VX] = free.vx;
+            out[offset + BODY_VY] = free.vy;
+            out[offset + BODY_OMEGA] = free.w;
+            captureLander(lander, sim.steps, true, out, offset);
+            return;
+        }
+        Body body = lander.body;
+        Vector2 p = body.getPosition();
+        Vector2 v = body.getLinearVelocity();
+        out[offset + BODY_X] = p.x;
+        out[offset + BODY_Y] = p.y;
+        out[offset + BODY_ANGLE] = body.getAngle();
+        out[offset + BODY_VX] = v.x;
+        out[offset + BODY_VY] = v.y;
+        out[offset + BODY_OMEGA] = body.getAngularVelocity();
+        captureLander(lander, sim.steps, body.isAwake(), out, offset);
+    }
+
+    /**
+     * Capture of a detached LanderState, such as a render snapshot or planner start, with
+     * the body state taken from its flight fields: as if placed there, awake, at step 0.
+     */
+    public static void capture(LanderState lander, float[] out, int offset) {
+        out[offset + BODY_X] = lander.x;
+        out[offset + BODY_Y] = lander.y;
+        out[offset + BODY_ANGLE] = lander.angle * MathUtils.degreesToRadians;
+        out[offset + BODY_VX] = lander.vx;
+        out[offset + BODY_VY] = lander.vy;
+        out[offset + BODY_OMEGA] = lander.omega * MathUtils.degreesToRadians;
+        captureLander(lander, 0, true, out, offset);
+        out[offset + APPLIED_MASS] = -1f;
+        out[offset + FLAGS] = (int)out[offset + FLAGS] & ~THRUST_PENDING;
+    }
+
+    private static void captureLander(LanderState l, long steps, boolean awake, float[] out, int o) {
+        out[o + X] = l.x; out[o + Y] = l.y;
+        out[o + VX] = l.vx; out[o + VY] = l.vy;
+        out[o + ANGLE] = l.angle; out[o + OMEGA] = l.omega;
+        out[o + ROT_COS] = l.rotCos; out[o + ROT_SIN] = l.rotSin;
+        out[o + PREV_X] = l.prevX; out[o + PREV_Y] = l.prevY; out[o + PREV_ANGLE] = l.prevAngle;
+        out[o + PREV_VY] = l.prevVy; out[o + VERTICAL_ACCEL] = l.verticalAccel;
+        out[o + INTEGRAL_VY] = l.integralVyError;
+        out[o + DERIVATIVE_VY] = l.derivativeVyError;
+        out[o + FILTERED_VY] = l.filteredVyError;
+        out[o + SMOOTHED_ACCEL] = l.smoothedVerticalAccel;
+        out[o + SMOOTHED_THROTTLE] = l.smoothedThrottle;
+        out[o + FUEL] = l.fuelMass; out[o + CARGO] = l.cargoMass;
+        out[o + THROTTLE] = l.throttle; out[o + THROTTLE_LEFT] = l.throttleLeft; out[o + THROTTLE_RIGHT] = l.throttleRight;
+        out[o + GOAL_VX] = l.goalVx; out[o + GOAL_VY] = l.goalVy; out[o + GOAL_ANGLE] = l.goalAngle;
+        out[o + TOUCHDOWN_SPEED] = l.touchdownSpeed;
+        out[o + APPLIED_MASS] = l.appliedMass;
+        int flags = 0;
+        if (l.alive) flags |= ALIVE;
+        if (l.landed) flags |= LANDED;
+        if (l.flyByWireMode) flags |= FBW;
+        if (awake) flags |= AWAKE;
+        if (l.thrustPending) flags |= THRUST_PENDING;
+        if (l.up) flags |= UP;
+        if (l.down) flags |= DOWN;
+        if (l.left) flags |= LEFT;
+        if (l.right) flags |= RIGHT;
+        if (l.space) flags |= SPACE;
+        out[o + FLAGS] = flags;
+        out[o + STEPS_LOW] = steps & ((1 << STEPS_SPLIT) - 1);
+        out[o + STEPS_HIGH] = steps >>> STEPS_SPLIT;
+    }
+
+    /** Puts sim into the captured state. The terrain must be the one the snapshot was taken over. */
+    public static void restore(Simulation sim, float[] in, int o) {
+        LanderState l = sim.lander;
+        Body body = l.body;
+        sim.leaveFreeFlight(); // the body is the one restored into; hybrid picks an integrator again below
+
+        // Mass data only changes when the snapshot's differs from what this body carries
+        float appliedMass = in[o + APPLIED_MASS];
+        if (appliedMass != l.appliedMass) {
+            if (appliedMass < 0f) {
+                body.resetMassData(); // never pushed: back to the fixture's own mass
+            } else {
+                MassData massData = l.massData;
+                massData.mass = appliedMass;
+                massData.center.set(0, 0);
+                massData.I = Physics.MOMENT_OF_INERTIA;
+                body.setMassData(massData);
+            }
+            l.appliedMass = appliedMass;
+        }
+
+        l.x = in[o + X]; l.y = in[o + Y];
+        l.vx = in[o + VX]; l.vy = in[o + VY];
+        l.angle = in[o + ANGLE]; l.omega = in[o + OMEGA];
+        l.rotCos = in[o + ROT_COS]; l.rotSin = in[o + ROT_SIN];
+        l.prevX = in[o + PREV_X]; l.prevY = in[o + PREV_Y]; l.prevAngle = in[o + PREV_ANGLE];
+        l.prevVy = in[o + PREV_VY]; l.verticalAccel = in[o + VERTICAL_ACCEL];
+        l.integralVyError = in[o + INTEGRAL_VY];
+        l.derivativeVyError = in[o + DERIVATIVE_VY];
+        l.filteredVyError = in[o + FILTERED_VY];
+        l.smoothedVerticalAccel = in[o + SMOOTHED_ACCEL];
+        l.smoothedThrottle = in[o + SMOOTHED_THROTTLE];
+        l.fuelMass = in[o + FUEL]; l.cargoMass = in[o + CARGO];
+        l.throttle = in[o + THROTTLE]; l.throttleLeft = in[o + THROTTLE_LEFT]; l.throttleRight = in[o + THROTTLE_RIGHT];
+        l.goalVx = in[o + GOAL_VX]; l.goalVy = in[o + GOAL_VY]; l.goalAngle = in[o + GOAL_ANGLE];
+        l.touchdownSpeed = in[o + TOUCHDOWN_SPEED];
+        int flags = (int)in[o + FLAGS];
+        l.alive = (flags & ALIVE) != 0;
+        l.landed = (flags & LANDED) != 0;
+        l.flyByWireMode = (flags & FBW) != 0;
+        l.up = (flags & UP) != 0;
+        l.down = (flags & DOWN) != 0;
+        l.left = (flags & LEFT) != 0;
+        l.right = (flags & RIGHT) != 0;
+        l.space = (flags & SPACE) != 0;
+        sim.steps = (long)in[o + STEPS_LOW] | ((long)in[o + STEPS_HIGH] << STEPS_SPLIT);
+
+        body.setTransform(in[o + BODY_X], in[o + BODY_Y], in[o + BODY_ANGLE]);
+        body.setLinearVelocity(in[o + BODY_VX], in[o + BODY_VY]);
+        body.setAngularVelocity(in[o + BODY_OMEGA]);
+        body.setAwake((flags & AWAKE) != 0);
+        // Box2D keeps applied force until the next step and has no getter for it, so re-apply it
+        sim.world.clearForces();
+        if (sim.hybrid) sim.chooseIntegrator();
+        l.thrustPending = false;
+        if ((flags & THRUST_PENDING) != 0) Physics.applyThrust(l);
+        if (sim.chunks != null) sim.chunks.update(l.x);
+    }
+}
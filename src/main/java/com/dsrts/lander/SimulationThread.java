@@ -0,0 +1,172 @@
+package com.dsrts.lander;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link Simulation} at its fixed rate on a thread of its own, so a slow
+ * frame no longer delays physics and a physics spike no longer drops a frame.
+ *
+ * The render thread hands input over through an {@link InputQueue} and reads the
+ * lander through a triple buffer of {@link Snapshot}s: the sim thread always has a
+ * buffer to write, the renderer always has a complete one to read, and the two
+ * swap through one atomic without either ever waiting. Once the thread is started,
+ * the Simulation belongs to it; the renderer only touches snapshots.
+ *
+ * Physics timings are recorded into the thread's own histograms and copied into each
+ * snapshot, since a {@link Histogram} cannot be shared between threads.
+ */
+public class SimulationThread {
+    /** Lander state as of one tick, plus when that tick was due and the timings so far. */
+    public static class Snapshot {
+        public final LanderState state;
+        public long tick;
+        public long tickNanos; // System.nanoTime() at which this tick was due
+        public final Histogram worldStepNanos = new Histogram();
+        public final Histogram controllerNanos = new Histogram();
+        public final Histogram stepsPerWake = new Histogram();
+
+        Snapshot(Simulation sim) {
+            state = new LanderState(sim.terrain.heights, sim.worldWidth, Lander.WORLD_HEIGHT_M, Lander.LANDER_WIDTH_M,
+                    Lander.LANDER_HEIGHT_M, Lander.LANDER_HALF_W, Lander.LANDER_HALF_H);
+        }
+    }
+
+    /**
+     * Single-producer single-consumer ring of per-frame input words. Offer and drain
+     * are wait-free; when the ring is full the producer folds the word into the next
+     * offer instead of blocking, so presses are never lost.
+     */
+    static class InputQueue {
+        private final int[] slots;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong(); // next slot to write, producer-owned
+        private final AtomicLong tail = new AtomicLong(); // next slot to read, consumer-owned
+        private int held = 0;     // consumer: held keys from the newest word seen
+        private int overflow = 0; // producer: presses from words that did not fit
+
+        InputQueue(int capacity) {
+            slots = new int[Integer.highestOneBit(capacity - 1) << 1];
+            mask = slots.length - 1;
+        }
+
+        /** Producer: queue one frame's input. */
+        void offer(int input) {
+            long h = head.get();
+            if (h - tail.get() == slots.length) {
+                overflow |= input & ~Controls.HELD_MASK;
+                return;
+            }
+            slots[(int)h & mask] = input | overflow;
+            overflow = 0;
+            head.lazySet(h + 1);
+        }
+
+        /** Consumer: input for one tick; the newest held keys and every press queued since the last tick. */
+        int drain() {
+            long t = tail.get();
+            long h = head.get();
+            int presses = 0;
+            for (; t < h; t++) {
+                int input = slots[(int)t & mask];
+                presses |= input & ~Controls.HELD_MASK;
+                held = input & Controls.HELD_MASK;
+            }
+            tail.lazySet(t);
+            return held | presses;
+        }
+    }
+
+    private static final int FRESH = 4; // set on the shared index when it holds an unread snapshot
+
+    public final Simulation simulation;
+    public final GameLoop loop;
+    private final FlightLog replay; // inputs come from here instead of the queue when set
+    private final InputQueue input = new InputQueue(256);
+    private final PerfStats perf = new PerfStats(); // sim thread only; readers get copies in snapshots
+
+    private final Snapshot[] buffers = new Snapshot[3];
+    private int back = 0;  // sim thread's buffer
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int front = 2; // render thread's buffer
+
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public SimulationThread(Simulation simulation, FlightLog replay, int maxStepsPerWake) {
+        this.simulation = simulation;
+        this.replay = replay;
+        this.loop = new GameLoop(Simulation.DT, maxStepsPerWake);
+        simulation.perf = perf;
+        for (int i = 0; i < buffers.length; i++) buffers[i] = new Snapshot(simulation);
+        // Every buffer starts as the initial state, so the renderer never sees an empty one
+        long now = System.nanoTime();
+        for (Snapshot s : buffers) {
+            s.state.copyFrom(simulation.lander);
+            s.tickNanos = now;
+        }
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /** Stops the thread and waits for the tick in progress; the Simulation is the caller's again after this. */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Render thread: hand over this frame's {@link Controls} word. */
+    public void offerInput(int controls) {
+        input.offer(controls);
+    }
+
+    /** Render thread: the newest published snapshot. It stays valid until the next call. */
+    public Snapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & ~FRESH;
+        }
+        return buffers[front];
+    }
+
+    private void run() {
+        long dtNanos = Math.round(Simulation.DT * 1e9);
+        long last = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            int steps = loop.advance((now - last) / 1e9);
+            last = now;
+            perf.stepsPerFrame.record(steps);
+            for (int i = 0; i < steps; i++) {
+                if (replay != null) {
+                    simulation.step(replay.hasNext() ? replay.next() : 0);
+                } else {
+                    simulation.step(input.drain());
+                }
+            }
+            if (steps > 0) publish(now - (long)(loop.alpha() * dtNanos));
+            // Sleep until the next tick is due
+            LockSupport.parkNanos((long)((1f - loop.alpha()) * dtNanos));
+        }
+    }
+
+    private void publish(long tickNanos) {
+        Snapshot s = buffers[back];
+        s.state.copyFrom(simulation.lander);
+        s.tick = simulation.steps;
+        s.tickNanos = tickNanos;
+        s.worldStepNanos.copyFrom(perf.worldStepNanos);
+        s.controllerNanos.copyFrom(perf.controllerNanos);
+        s.stepsPerWake.copyFrom(perf.stepsPerFrame);
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Parallax sky backdrop. Each depth layer is generated once into a static mesh
+ * (small stars as GL_POINTS followed by large-star crosses as GL_LINES) and is
+ * scrolled per frame by a translation only, so the cost per frame is two draw
+ * calls per layer regardless of star count. The rotating galaxy is one mesh
+ * drawn under a rotation transform.
+ *
+ * The vertices are generated by {@link #generate}, which needs no GL context and can
+ * run during startup; the constructor only uploads them.
+ */
+public class Starfield implements Disposable {
+    private static final int FLOATS_PER_VERTEX = 3; // x, y, packed colour
+
+    // Far to near; a factor of 1 moves with the terrain
+    private static final float[] LAYER_PARALLAX = {0.15f, 0.35f, 0.6f, 1.0f};
+    private static final int[] LAYER_SMALL_STARS = {6000, 4000, 2500, 1500};
+    private static final int[] LAYER_LARGE_STARS = {60, 50, 40, 25};
+    private static final float LARGE_STAR_SIZE = 0.5f;
+    private static final float MIN_CLEARANCE = 10.0f; // meters above terrain
+
+    private static final int GALAXY_STAR_COUNT = 30;
+    private static final int GALAXY_SEGMENTS = 20;
+    private static final float GALAXY_RADIUS = 8f;
+    private static final float GALAXY_ROTATION_SPEED = 10f;
+
+    private final Mesh[] layers = new Mesh[LAYER_PARALLAX.length];
+    private final Mesh galaxy;
+    private final float galaxyX, galaxyY;
+    private float galaxyRotation = 0f;
+    private final Matrix4 transform = new Matrix4();
+
+    /** Star and galaxy vertices, not yet on the GPU. */
+    public static class Stars {
+        final float[][] layers;
+        final float[] galaxy;
+        final float galaxyX;
+
+        Stars(float[][] layers, float[] galaxy, float galaxyX) {
+            this.layers = layers;
+            this.galaxy = galaxy;
+            this.galaxyX = galaxyX;
+        }
+    }
+
+    public Starfield(Stars stars) {
+        for (int l = 0; l < layers.length; l++) layers[l] = upload(stars.layers[l]);
+        galaxyX = stars.galaxyX;
+        galaxyY = 120f;
+        galaxy = upload(stars.galaxy);
+    }
+
+    /** The sky for this terrain and seed; any thread. */
+    public static Stars generate(TerrainIndex terrain, float worldHeight, long seed) {
+        RandomXS128 rng = new RandomXS128(seed);
+        float worldWidth = terrain.worldWidth;
+        float[][] layers = new float[LAYER_PARALLAX.length][];
+        for (int l = 0; l < layers.length; l++) {
+            layers[l] = buildLayer(rng, l, terrain, worldWidth, worldHeight);
+        }
+
+        float thirdWidth = worldWidth / 3f;
+        float galaxyX = rng.nextInt(3) * thirdWidth + thirdWidth * 0.3f;
+        return new Stars(layers, buildGalaxy(rng), galaxyX);
+    }
+
+    private static float[] buildLayer(RandomXS128 rng, int layer, TerrainIndex terrain, float worldWidth, float worldHeight) {
+        float parallax = LAYER_PARALLAX[layer];
+        int small = LAYER_SMALL_STARS[layer];
+        int large = LAYER_LARGE_STARS[layer];
+        // Layer-space span seen while the camera travels the world; always one world wide
+        float left = -(1f - parallax) * worldWidth / 2f;
+        float brightness = 0.35f + 0.65f * parallax;
+
+        float[] vertices = new float[(small + large * 4) * FLOATS_PER_VERTEX];
+        Color color = new Color();
+        int v = 0;
+        for (int i = 0; i < small + large; i++) {
+            float x = left + rng.nextFloat() * worldWidth;
+            float floor;
+            if (parallax == 1f) {
+                // World-locked layer can hug the local terrain
+                floor = terrain.heightAt(x) + MIN_CLEARANCE;
+            } else {
+                floor = terrain.maxHeight() + MIN_CLEARANCE;
+            }
+            float y = floor + rng.nextFloat() * Math.max(0f, worldHeight - floor);
+            float b = brightness * (0.6f + rng.nextFloat() * 0.4f);
+            float bits = color.set(0.8f * b, 0.8f * b, 0.9f * b, 1f).toFloatBits();
+
+            if (i < small) {
+                v = put(vertices, v, x, y, bits);
+            } else {
+                v = put(vertices, v, x - LARGE_STAR_SIZE, y, bits);
+                v = put(vertices, v, x + LARGE_STAR_SIZE, y, bits);
+                v = put(vertices, v, x, y - LARGE_STAR_SIZE, bits);
+                v = put(vertices, v, x, y + LARGE_STAR_SIZE, bits);
+            }
+        }
+        return vertices;
+    }
+
+    private static float[] buildGalaxy(RandomXS128 rng) {
+        float[] vertices = new float[(GALAXY_SEGMENTS * 2 + GALAXY_STAR_COUNT) * FLOATS_PER_VERTEX];
+        float ring = new Color(0.8f, 0.6f, 1.0f, 1f).toFloatBits();
+        float white = Color.WHITE.toFloatBits();
+        int v = 0;
+        for (int i = 0; i < GALAXY_SEGMENTS; i++) {
+            float a1 = MathUtils.PI2 * i / GALAXY_SEGMENTS;
+            float a2 = MathUtils.PI2 * (i + 1) / GALAXY_SEGMENTS;
+            v = put(vertices, v, MathUtils.cos(a1) * GALAXY_RADIUS, MathUtils.sin(a1) * GALAXY_RADIUS, ring);
+            v = put(vertices, v, MathUtils.cos(a2) * GALAXY_RADIUS, MathUtils.sin(a2) * GALAXY_RADIUS, ring);
+        }
+        for (int i = 0; i < GALAXY_STAR_COUNT; i++) {
+            float angle = rng.nextFloat() * MathUtils.PI2;
+            float rad = (0.5f + rng.nextFloat() * 0.5f) * GALAXY_RADIUS;
+            v = put(vertices, v, MathUtils.cos(angle) * rad, MathUtils.sin(angle) * rad, white);
+        }
+        return vertices;
+    }
+
+    private static int put(float[] vertices, int v, float x, float y, float color) {
+        vertices[v++] = x;
+        vertices[v++] = y;
+        vertices[v++] = color;
+        return v;
+    }
+
+    private static Mesh upload(float[] vertices) {
+        Mesh mesh = new Mesh(true, vertices.length / FLOATS_PER_VERTEX, 0,
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                VertexAttribute.ColorPacked());
+        mesh.setVertices(vertices);
+        return mesh;
+    }
+
+    /** Draws all layers and the galaxy. Shader must already be bound. */
+    public void render(ShaderProgram shader, Matrix4 projection, float camX, float delta) {
+        for (int l = 0; l < layers.length; l++) {
+            float parallax = LAYER_PARALLAX[l];
+            int small = LAYER_SMALL_STARS[l];
+            transform.set(projection).translate(camX * (1f - parallax), 0, 0);
+            shader.setUniformMatrix("u_projModelView", transform);
+            layers[l].render(shader, GL20.GL_POINTS, 0, small);
+            layers[l].render(shader, GL20.GL_LINES, small, LAYER_LARGE_STARS[l] * 4);
+        }
+
+        galaxyRotation += GALAXY_ROTATION_SPEED * delta;
+        transform.set(projection).translate(galaxyX, galaxyY, 0).rotate(0, 0, 1, galaxyRotation);
+        shader.setUniformMatrix("u_projModelView", transform);
+        galaxy.render(shader, GL20.GL_LINES, 0, GALAXY_SEGMENTS * 2);
+        galaxy.render(shader, GL20.GL_POINTS, GALAXY_SEGMENTS * 2, GALAXY_STAR_COUNT);
+    }
+
+    @Override
+    public void dispose() {
+        for (Mesh mesh : layers) mesh.dispose();
+        galaxy.dispose();
+    }
+}
@@ -0,0 +1,78 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3FileHandle;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Launch work that needs no GL context, started before the window is opened so it
+ * runs while GLFW and the context come up: the terrain and the Simulation on it, then
+ * the star vertices, and on a second thread the HUD font from the {@link FontCache}.
+ * Lander.create() joins it and only uploads what it gets.
+ *
+ * Also times the launch, from the Lander being constructed to the first frame drawn.
+ */
+public class Startup {
+    static final String FONT = "fonts/Roboto-Regular.ttf";
+    static final int FONT_SIZE = 22;
+    static final Path FONT_CACHE = Paths.get("cache", "fonts");
+
+    public final long launchNanos = System.nanoTime();
+    final CompletableFuture<Simulation> simulation;
+    final CompletableFuture<Starfield.Stars> stars;
+    final CompletableFuture<FontCache.Atlas> font;
+
+    long createStartNanos, createEndNanos;
+    long waitNanos; // of create(), spent blocked on the futures
+
+    public Startup(long seed) {
+        ExecutorService pool = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "startup");
+            t.setDaemon(true);
+            return t;
+        });
+        simulation = CompletableFuture.supplyAsync(() -> {
+            Terrain.generateHeights(Terrain.terrainHeights, seed);
+            return new Simulation(Terrain.terrainHeights);
+        }, pool);
+        stars = simulation.thenApply(sim -> Starfield.generate(sim.terrain, Lander.WORLD_HEIGHT_M, seed));
+        font = CompletableFuture.supplyAsync(() -> {
+            GdxNativesLoader.load(); // Pixmap; the application loads them too, later
+            return FontCache.prepare(new Lwjgl3FileHandle(FONT, Files.FileType.Classpath), FONT_SIZE,
+                    FreeTypeFontGenerator.DEFAULT_CHARS, FONT_CACHE);
+        }, pool);
+        pool.shutdown(); // both tasks are queued; the threads exit when they are done
+    }
+
+    /** Blocks until f is done, counting the time against create(); failures are rethrown unwrapped where possible. */
+    <T> T join(CompletableFuture<T> f) {
+        long start = System.nanoTime();
+        try {
+            return f.join();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+            if (e.getCause() instanceof Error) throw (Error)e.getCause();
+            throw e;
+        } finally {
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /** One line on where launch time went, given the time the first frame finished. */
+    String report(long firstFrameNanos) {
+        long jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime()
+                - (System.nanoTime() - launchNanos) / 1_000_000; // JVM start to launch
+        return String.format("First frame %.0f ms after launch (+%d ms JVM start): window %.0f ms, create %.0f ms "
+                        + "(%.0f ms waiting on startup work), first render %.0f ms",
+                (firstFrameNanos - launchNanos) / 1e6, jvmMillis,
+                (createStartNanos - launchNanos) / 1e6, (createEndNanos - createStartNanos) / 1e6,
+                waitNanos / 1e6, (firstFrameNanos - createEndNanos) / 1e6);
+    }
+}
@@ -0,0 +1,236 @@
+package com.dsrts.lander;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-tick lander history. {@link #capture} copies the tick's state into a
+ * preallocated struct-of-arrays ring (one float[] per channel) and publishes it
+ * with a single ordered write; a drain thread encodes published ticks and writes
+ * them through a FileChannel. The ring is single-producer/single-consumer: the
+ * simulation thread never blocks or allocates, and when the drain falls a full
+ * ring behind, new ticks are dropped and counted rather than waited on.
+ *
+ * File layout, little-endian: magic, version, channel count, then per channel its
+ * name and scale. Each record is the tick delta and, per channel, the change of
+ * round(value * scale) since the previous record, all as zigzag varints.
+ * {@link #read} decodes a file.
+ */
+public class Telemetry implements AutoCloseable {
+    static final int MAGIC = 0x4D4C4454; // "TDLM"
+    static final short VERSION = 1;
+
+    public static final String[] CHANNELS = {
+            "x", "y", "vx", "vy", "angle", "omega",
+            "throttle", "throttleLeft", "throttleRight", "fuelMass",
+            "integralVyError", "filteredVyError", "derivativeVyError"
+    };
+    // Fixed-point resolution per channel: mm, mm/s, 0.01 deg, 1e-4 throttle, 10 g, 1e-4 PID units
+    static final float[] SCALES = {
+            1000f, 1000f, 1000f, 1000f, 100f, 100f,
+            10000f, 10000f, 10000f, 100f,
+            10000f, 10000f, 10000f
+    };
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_RECORD_BYTES = 10 + 5 * 13;
+    private static final long IDLE_PARK_NANOS = 2_000_000L;
+
+    private final int mask;
+    private final long[] ticks;
+    private final float[][] columns;
+    private final AtomicLong head = new AtomicLong(); // next slot to write, producer-owned
+    private final AtomicLong tail = new AtomicLong(); // next slot to read, consumer-owned
+    private volatile boolean closing = false;
+    private volatile long dropped = 0;
+
+    private final FileChannel channel;
+    private final Thread drainer;
+    private volatile IOException failure;
+
+    public Telemetry(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity ring size in ticks, rounded up to a power of two */
+    public Telemetry(Path path, int capacity) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        ticks = new long[size];
+        columns = new float[CHANNELS.length][size];
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        drainer = new Thread(this::drain, "telemetry");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /** Ticks that were discarded because the ring was full. */
+    public long dropped() {
+        return dropped;
+    }
+
+    /** Records one tick of lander state. Simulation thread only. */
+    public void capture(long tick, LanderState lander) {
+        long h = head.get();
+        if (h - tail.get() > mask) {
+            dropped++; // single writer
+            return;
+        }
+        int i = (int)h & mask;
+        ticks[i] = tick;
+        float[][] c = columns;
+        c[0][i] = lander.x;
+        c[1][i] = lander.y;
+        c[2][i] = lander.vx;
+        c[3][i] = lander.vy;
+        c[4][i] = lander.angle;
+        c[5][i] = lander.omega;
+        c[6][i] = lander.throttle;
+        c[7][i] = lander.throttleLeft;
+        c[8][i] = lander.throttleRight;
+        c[9][i] = lander.fuelMass;
+        c[10][i] = lander.integralVyError;
+        c[11][i] = lander.filteredVyError;
+        c[12][i] = lander.derivativeVyError;
+        head.lazySet(h + 1); // publishes the slot to the drain thread
+    }
+
+    private void drain() {
+        ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader(out);
+        long lastTick = 0;
+        long[] last = new long[CHANNELS.length];
+        try {
+            while (true) {
+                boolean done = closing; // read before head so the final ticks are not missed
+                long t = tail.get();
+                long h = head.get();
+                if (t == h) {
+                    if (done) break;
+                    flush(out);
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                for (; t < h; t++) {
+                    if (out.remaining() < MAX_RECORD_BYTES) flush(out);
+                    int i = (int)t & mask;
+                    putZigzag(out, ticks[i] - lastTick);
+                    lastTick = ticks[i];
+                    for (int ch = 0; ch < CHANNELS.length; ch++) {
+                        long q = Math.round(columns[ch][i] * (double)SCALES[ch]);
+                        putZigzag(out, q - last[ch]);
+                        last[ch] = q;
+                    }
+                }
+                tail.lazySet(t);
+            }
+            flush(out);
+        } catch (IOException e) {
+            failure = e;
+            // Stop consuming: capture() then drops, which is the right behaviour without a disk
+        }
+    }
+
+    private void writeHeader(ByteBuffer out) {
+        out.putInt(MAGIC).putShort(VERSION).putShort((short)CHANNELS.length);
+        for (int ch = 0; ch < CHANNELS.length; ch++) {
+            byte[] name = CHANNELS[ch].getBytes(StandardCharsets.US_ASCII);
+            out.put((byte)name.length).put(name).putFloat(SCALES[ch]);
+        }
+    }
+
+    private void flush(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /** Drains everything captured so far, then closes the file. */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    static void putZigzag(ByteBuffer out, long value) {
+        FlightRecorder.putVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    /** A decoded telemetry file; columns are in {@link #CHANNELS} order. */
+    public static class Frames {
+        public int count;
+        public long[] ticks;
+        public float[][] columns;
+    }
+
+    /** Decodes a whole file into memory. */
+    public static Frames read(Path path) throws IOException {
+        ByteBuffer in;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (in.remaining() < 8 || in.getInt() != MAGIC) throw new IOException("Not a telemetry file: " + path);
+        short version = in.getShort();
+        if (version != VERSION) throw new IOException("Unsupported telemetry version " + version + ": " + path);
+        int channels = in.getShort();
+        float[] scales = new float[channels];
+        for (int ch = 0; ch < channels; ch++) {
+            int nameLength = in.get();
+            in.position(in.position() + nameLength);
+            scales[ch] = in.getFloat();
+        }
+
+        Frames frames = new Frames();
+        frames.ticks = new long[1024];
+        frames.columns = new float[channels][1024];
+        long tick = 0;
+        long[] last = new long[channels];
+        while (in.hasRemaining()) {
+            int n = frames.count;
+            if (n == frames.ticks.length) {
+                frames.ticks = Arrays.copyOf(frames.ticks, n * 2);
+                for (int ch = 0; ch < channels; ch++) frames.columns[ch] = Arrays.copyOf(frames.columns[ch], n * 2);
+            }
+            tick += getZigzag(in);
+            frames.ticks[n] = tick;
+            for (int ch = 0; ch < channels; ch++) {
+                last[ch] += getZigzag(in);
+                frames.columns[ch][n] = (float)(last[ch] / (double)scales[ch]);
+            }
+            frames.count++;
+        }
+        return frames;
+    }
+
+    private static long getZigzag(ByteBuffer in) {
+        long raw = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            raw |= (long)(b & 0x7F) << shift;
+            if (b >= 0) break;
+        }
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -22,52 +22,50 @@ public class Terrain {
 
     public static int padWidth = 100; 
 
+    public static final float TERRAIN_BASE = 10f; // meters, height of flats and pads
+    public static final float SAMPLE_SPACING_M = 750f / 4800; // meters between height samples
+
+    // Collision categories: landers only test against terrain, never each other
+    public static final short CATEGORY_TERRAIN = 0x0001;
+    public static final short CATEGORY_LANDER = 0x0002;
+
     public static Body terrainBody;
 
-    public static void generateTerrain(World world, float WORLD_WIDTH_M) {
-        double base = 10; 
-        int n = terrainHeights.length;
-        int padCount = padCenters.length;
+    public static void generateTerrain(World world, float WORLD_WIDTH_M, long seed) {
+        generateHeights(terrainHeights, seed);
+        terrainBody = createTerrainBody(world, terrainHeights, WORLD_WIDTH_M);
+    }
 
-        // --- 1. Procedural Generation (Internal array) ---
-        int leftPadStart = padCenters[0] - padWidth / 2;
-        for (int i = 0; i < leftPadStart; i++) {
-            terrainHeights[i] = (float) base;
-        }
+    public static void generateHeights(float[] terrainHeights, long seed) {
+        generateHeights(terrainHeights, padCenters, padWidth, seed);
+    }
 
-        for (int p = 0; p < padCount - 1; p++) {
-            int padAEnd = padCenters[p] + padWidth / 2;
-            int padBStart = padCenters[p+1] - padWidth / 2;
-            int regionLen = padBStart - padAEnd;
-            int mid = regionLen / 2;
-            double peak = base + Math.random() * 50 + 20;
-            for (int i = 0; i <= mid; i++) {
-                int idx = padAEnd + i;
-                terrainHeights[idx] = (float)(base + ((double)i / mid) * (peak - base));
-            }
-            for (int i = mid + 1; i < regionLen; i++) {
-                int idx = padAEnd + i;
-                terrainHeights[idx] = (float)(peak + ((double)(i - mid) / (regionLen - 1 - mid)) * (base - peak));
-            }
+    // Evenly spaced pads at the same density as the standard 4800-sample map
+    public static int[] layoutPads(int samples) {
+        int gaps = Math.max(2, Math.round(samples / (4800 / 7f)));
+        int[] pads = new int[gaps - 1];
+        for (int p = 0; p < pads.length; p++) {
+            pads[p] = (int)((long)samples * (p + 1) / gaps);
         }
+        return pads;
+    }
 
-        int rightPadEnd = padCenters[padCount-1] + padWidth / 2;
-        for (int i = rightPadEnd; i < n; i++) {
-            terrainHeights[i] = (float) base;
-        }
+    /** Same seed, pads and length always give the same heights; see {@link FractalTerrain}. */
+    public static void generateHeights(float[] terrainHeights, int[] padCenters, int padWidth, long seed) {
+        FractalTerrain.generate(terrainHeights, padCenters, padWidth, seed);
+    }
 
-        for (int c = 0; c < padCenters.length; c++) {
-            int start = padCenters[c] - padWidth / 2;
-            int end = padCenters[c] + padWidth / 2;
-            for (int i = Math.max(0, start); i < Math.min(n, end); i++) {
-                terrainHeights[i] = (float) base;
-            }
-        }
+    public static Body createTerrainBody(World world, float[] terrainHeights, float WORLD_WIDTH_M) {
+        return createTerrainBody(world, terrainHeights, WORLD_WIDTH_M, padCenters, padWidth);
+    }
+
+    public static Body createTerrainBody(World world, float[] terrainHeights, float WORLD_WIDTH_M, int[] padCenters, int padWidth) {
+        int n = terrainHeights.length;
+        int padCount = padCenters.length;
 
-        // --- 2. Box2D Body Creation ---
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyDef.BodyType.StaticBody;
-        terrainBody = world.createBody(bodyDef);
+        Body terrainBody = world.createBody(bodyDef);
 
         // Main Surface Chain
         Vector2[] vertices = new Vector2[n];
@@ -81,6 +79,8 @@ public class Terrain {
         FixtureDef surfaceDef = new FixtureDef();
         surfaceDef.shape = chain;
         surfaceDef.friction = 0.8f;
+        surfaceDef.filter.categoryBits = CATEGORY_TERRAIN;
+        surfaceDef.filter.maskBits = CATEGORY_LANDER;
         terrainBody.createFixture(surfaceDef).setUserData("terrain");
         chain.dispose();
 
@@ -92,13 +92,16 @@ public class Terrain {
             float xEnd = (float)endIdx * WORLD_WIDTH_M / (float)n;
             
             ChainShape padChain = new ChainShape();
-            padChain.createChain(new Vector2[]{new Vector2(xStart, (float)base + 0.05f), new Vector2(xEnd, (float)base + 0.05f)});
+            padChain.createChain(new Vector2[]{new Vector2(xStart, TERRAIN_BASE + 0.05f), new Vector2(xEnd, TERRAIN_BASE + 0.05f)});
             
             FixtureDef padDef = new FixtureDef();
             padDef.shape = padChain;
             padDef.isSensor = true; // Doesn't affect physics, just for detection
+            padDef.filter.categoryBits = CATEGORY_TERRAIN;
+            padDef.filter.maskBits = CATEGORY_LANDER;
             terrainBody.createFixture(padDef).setUserData("pad");
             padChain.dispose();
         }
+        return terrainBody;
     }
 }
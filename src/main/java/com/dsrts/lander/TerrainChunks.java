@@ -0,0 +1,181 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams the terrain surface into a Box2D world as fixed-size chain fixtures around
+ * the lander, instead of one chain for the whole map. Live chunks are kept in an LRU
+ * bounded by maxLiveChunks, so fixture count and broadphase size do not grow with
+ * world width. Chunk chains carry ghost vertices from their neighbours so contacts
+ * are smooth across seams, and pad sensors are clipped per chunk with the same
+ * "terrain"/"pad" userData as {@link Terrain#createTerrainBody}. Heights are read only
+ * for the chunks being built, so over a {@link MapFile} the rest of the map is never
+ * paged in.
+ */
+public class TerrainChunks {
+    public static final int DEFAULT_CHUNK_SAMPLES = 512;
+    public static final int DEFAULT_MAX_LIVE_CHUNKS = 8;
+
+    static class Chunk {
+        Fixture surface;
+        final Array<Fixture> pads = new Array<>(false, 2);
+        final float[] ghosts = {Float.NaN, Float.NaN, Float.NaN, Float.NaN}; // prev x, y, next x, y; NaN at the map's ends
+    }
+
+    private final Body body;
+    private final HeightField heights;
+    private final int samples;
+    private final float spacing;
+    private final int[] padCenters;
+    private final int padWidth;
+    private final int chunkSamples;
+    private final int chunkCount;
+    private final int maxLiveChunks;
+    private final float[] vertices;
+
+    // Access-ordered: iteration starts at the least recently needed chunk
+    private final LinkedHashMap<Integer, Chunk> live = new LinkedHashMap<>(16, 0.75f, true);
+    private int centerChunk = -1;
+
+    public TerrainChunks(World world, float[] heights, float worldWidth, int[] padCenters, int padWidth) {
+        this(world, heights, worldWidth, padCenters, padWidth, DEFAULT_CHUNK_SAMPLES, DEFAULT_MAX_LIVE_CHUNKS);
+    }
+
+    public TerrainChunks(World world, float[] heights, float worldWidth, int[] padCenters, int padWidth,
+                         int chunkSamples, int maxLiveChunks) {
+        this(world, HeightField.of(heights), worldWidth, padCenters, padWidth, chunkSamples, maxLiveChunks);
+    }
+
+    public TerrainChunks(World world, HeightField heights, float worldWidth, int[] padCenters, int padWidth,
+                         int chunkSamples, int maxLiveChunks) {
+        if (maxLiveChunks < 3) throw new IllegalArgumentException("maxLiveChunks must cover the lander and both neighbours");
+        this.heights = heights;
+        this.samples = heights.samples();
+        this.spacing = worldWidth / samples;
+        this.padCenters = padCenters;
+        this.padWidth = padWidth;
+        this.chunkSamples = chunkSamples;
+        this.chunkCount = (samples - 1 + chunkSamples - 1) / chunkSamples;
+        this.maxLiveChunks = maxLiveChunks;
+        this.vertices = new float[(chunkSamples + 1) * 2];
+
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        body = world.createBody(bodyDef);
+    }
+
+    public Body getBody() { return body; }
+
+    public int liveChunkCount() { return live.size(); }
+
+    /** The live chunk with index c, or null; does not count as a use. */
+    Chunk liveChunk(int c) {
+        for (Map.Entry<Integer, Chunk> e : live.entrySet()) if (e.getKey() == c) return e.getValue();
+        return null;
+    }
+
+    /** Makes sure the chunk under x and its neighbours exist, evicting the least recently used beyond the cap. */
+    public void update(float x) {
+        int c = chunkAt(x);
+        if (c == centerChunk) return;
+        centerChunk = c;
+
+        for (int i = c - 1; i <= c + 1; i++) {
+            if (i < 0 || i >= chunkCount) continue;
+            if (live.get(i) == null) live.put(i, createChunk(i));
+        }
+        // Re-touch the centre so it is the most recently used
+        live.get(c);
+
+        Iterator<Map.Entry<Integer, Chunk>> it = live.entrySet().iterator();
+        while (live.size() > maxLiveChunks && it.hasNext()) {
+            Map.Entry<Integer, Chunk> e = it.next();
+            if (Math.abs(e.getKey() - c) <= 1) continue;
+            destroyChunk(e.getValue());
+            it.remove();
+        }
+    }
+
+    private int chunkAt(float x) {
+        int sample = (int)(x / spacing);
+        int c = sample / chunkSamples;
+        if (c < 0) return 0;
+        if (c >= chunkCount) return chunkCount - 1;
+        return c;
+    }
+
+    private Chunk createChunk(int c) {
+        Chunk chunk = new Chunk();
+        int start = c * chunkSamples;
+        int end = Math.min(start + chunkSamples, samples - 1); // inclusive, shared with next chunk
+
+        int len = 0;
+        for (int i = start; i <= end; i++) {
+            vertices[len++] = i * spacing;
+            vertices[len++] = heights.height(i);
+        }
+        ChainShape chain = new ChainShape();
+        chain.createChain(vertices, 0, len);
+        if (start > 0) {
+            chunk.ghosts[0] = (start - 1) * spacing;
+            chunk.ghosts[1] = heights.height(start - 1);
+            chain.setPrevVertex(chunk.ghosts[0], chunk.ghosts[1]);
+        }
+        if (end < samples - 1) {
+            chunk.ghosts[2] = (end + 1) * spacing;
+            chunk.ghosts[3] = heights.height(end + 1);
+            chain.setNextVertex(chunk.ghosts[2], chunk.ghosts[3]);
+        }
+
+        FixtureDef surfaceDef = new FixtureDef();
+        surfaceDef.shape = chain;
+        surfaceDef.friction = 0.8f;
+        surfaceDef.filter.categoryBits = Terrain.CATEGORY_TERRAIN;
+        surfaceDef.filter.maskBits = Terrain.CATEGORY_LANDER;
+        chunk.surface = body.createFixture(surfaceDef);
+        chunk.surface.setUserData("terrain");
+        chain.dispose();
+
+        // Pad sensors clipped to this chunk's span; pads are sorted, so start at the first that can reach it
+        int first = Arrays.binarySearch(padCenters, start - padWidth / 2);
+        if (first < 0) first = -first - 1;
+        for (int p = first; p < padCenters.length && padCenters[p] - padWidth / 2 < end; p++) {
+            int padStart = Math.max(padCenters[p] - padWidth / 2, start);
+            int padEnd = Math.min(padCenters[p] + padWidth / 2, end);
+            if (padEnd <= padStart) continue;
+
+            vertices[0] = padStart * spacing;
+            vertices[1] = Terrain.TERRAIN_BASE + 0.05f;
+            vertices[2] = padEnd * spacing;
+            vertices[3] = Terrain.TERRAIN_BASE + 0.05f;
+            ChainShape padChain = new ChainShape();
+            padChain.createChain(vertices, 0, 4);
+
+            FixtureDef padDef = new FixtureDef();
+            padDef.shape = padChain;
+            padDef.isSensor = true;
+            padDef.filter.categoryBits = Terrain.CATEGORY_TERRAIN;
+            padDef.filter.maskBits = Terrain.CATEGORY_LANDER;
+            Fixture pad = body.createFixture(padDef);
+            pad.setUserData("pad");
+            chunk.pads.add(pad);
+            padChain.dispose();
+        }
+        return chunk;
+    }
+
+    private void destroyChunk(Chunk chunk) {
+        body.destroyFixture(chunk.surface);
+        for (Fixture pad : chunk.pads) body.destroyFixture(pad);
+    }
+}
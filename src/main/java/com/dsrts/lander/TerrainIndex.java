@@ -0,0 +1,217 @@
+package com.dsrts.lander;
+
+import java.util.Arrays;
+
+/**
+ * Read-only queries over a {@link HeightField}: interpolated height and slope in O(1),
+ * min/max over any x range and nearest pad in O(log n), and clearance along a
+ * straight path. Samples sit at x = i * spacing and the surface is the polyline
+ * through them, the same one the Box2D chain and the terrain mesh use.
+ *
+ * Ranges are answered from a min/max tree over blocks of {@link #BLOCK} samples,
+ * scanning the partial blocks at either end, so the tree stays a small fraction
+ * of the height array even for maps of tens of millions of samples. Over a field
+ * with its own summary, such as a {@link MapFile}, the tree is built from that
+ * summary at its coarser block size and no sample is read up front.
+ */
+public class TerrainIndex {
+    static final int BLOCK = 16;
+
+    public final HeightField heights;
+    public final float worldWidth;
+    public final float spacing;
+    public final int[] padCenters; // sorted sample indices
+    public final int padWidth;
+
+    private final float invSpacing;
+    private final int samples;
+    private final int block;         // samples per tree leaf
+    private final int leaves;        // power of two >= block count
+    private final float[] treeMin;   // node i has children 2i and 2i+1; leaves start at index leaves
+    private final float[] treeMax;
+
+    public TerrainIndex(float[] heights, float worldWidth, int[] padCenters, int padWidth) {
+        this(HeightField.of(heights), worldWidth, padCenters, padWidth);
+    }
+
+    public TerrainIndex(HeightField heights, float worldWidth, int[] padCenters, int padWidth) {
+        this.heights = heights;
+        this.worldWidth = worldWidth;
+        this.samples = heights.samples();
+        this.spacing = worldWidth / samples;
+        this.invSpacing = samples / worldWidth;
+        this.padCenters = padCenters;
+        this.padWidth = padWidth;
+
+        boolean summarized = heights.summaryBlock() > 0;
+        block = summarized ? heights.summaryBlock() : BLOCK;
+        int blocks = (samples + block - 1) / block;
+        leaves = Integer.highestOneBit(Math.max(1, blocks - 1)) << 1;
+        treeMin = new float[2 * leaves];
+        treeMax = new float[2 * leaves];
+        Arrays.fill(treeMin, Float.POSITIVE_INFINITY);
+        Arrays.fill(treeMax, Float.NEGATIVE_INFINITY);
+        for (int b = 0; b < blocks; b++) {
+            if (summarized) {
+                treeMin[leaves + b] = heights.blockMin(b);
+                treeMax[leaves + b] = heights.blockMax(b);
+                continue;
+            }
+            float lo = Float.POSITIVE_INFINITY, hi = Float.NEGATIVE_INFINITY;
+            for (int i = b * block, end = Math.min(samples, i + block); i < end; i++) {
+                lo = Math.min(lo, heights.height(i));
+                hi = Math.max(hi, heights.height(i));
+            }
+            treeMin[leaves + b] = lo;
+            treeMax[leaves + b] = hi;
+        }
+        for (int n = leaves - 1; n >= 1; n--) {
+            treeMin[n] = Math.min(treeMin[2 * n], treeMin[2 * n + 1]);
+            treeMax[n] = Math.max(treeMax[2 * n], treeMax[2 * n + 1]);
+        }
+    }
+
+    /** Standard map: Terrain.padCenters and Terrain.padWidth over the given heights. */
+    public TerrainIndex(float[] heights, float worldWidth) {
+        this(heights, worldWidth, Terrain.padCenters, Terrain.padWidth);
+    }
+
+    /** Surface height at x, linear between samples and clamped to the ends of the map. */
+    public float heightAt(float x) {
+        return interpolate(heights, samples, invSpacing, x);
+    }
+
+    /** As {@link #heightAt(float)}, for a one-off lookup without building an index. */
+    public static float heightAt(HeightField heights, float worldWidth, float x) {
+        return interpolate(heights, heights.samples(), heights.samples() / worldWidth, x);
+    }
+
+    private static float interpolate(HeightField heights, int samples, float invSpacing, float x) {
+        float s = x * invSpacing;
+        int last = samples - 1;
+        if (s <= 0f) return heights.height(0);
+        if (s >= last) return heights.height(last);
+        int i = (int)s;
+        float t = s - i;
+        float h = heights.height(i);
+        return h + (heights.height(i + 1) - h) * t;
+    }
+
+    /** dHeight/dx of the segment under x; zero off the ends of the map. */
+    public float slopeAt(float x) {
+        float s = x * invSpacing;
+        int last = samples - 1;
+        if (s < 0f || s >= last) return 0f;
+        int i = (int)s;
+        return (heights.height(i + 1) - heights.height(i)) * invSpacing;
+    }
+
+    /** Highest point of the surface over [x0, x1]. */
+    public float maxHeight(float x0, float x1) {
+        return extreme(x0, x1, true);
+    }
+
+    /** Lowest point of the surface over [x0, x1]. */
+    public float minHeight(float x0, float x1) {
+        return extreme(x0, x1, false);
+    }
+
+    public float maxHeight() {
+        return treeMax[1];
+    }
+
+    /** Height above the highest ground anywhere under a footprint of halfWidth either side of x. */
+    public float radarAltitude(float x, float bottomY, float halfWidth) {
+        return bottomY - maxHeight(x - halfWidth, x + halfWidth);
+    }
+
+    /** Index into padCenters of the pad whose center is closest to x. */
+    public int nearestPad(float x) {
+        float s = x * invSpacing;
+        int lo = 0, hi = padCenters.length - 1;
+        while (lo < hi) { // first pad at or right of s
+            int mid = (lo + hi) >>> 1;
+            if (padCenters[mid] < s) lo = mid + 1; else hi = mid;
+        }
+        if (lo > 0 && s - padCenters[lo - 1] <= padCenters[lo] - s) lo--;
+        return lo;
+    }
+
+    public float padX(int pad) {
+        return padCenters[pad] * spacing;
+    }
+
+    /** True when x is within the flat span of a pad. */
+    public boolean overPad(float x) {
+        int p = nearestPad(x);
+        int i = Math.round(x * invSpacing);
+        return i >= padCenters[p] - padWidth / 2 && i < padCenters[p] + padWidth / 2;
+    }
+
+    /**
+     * Smallest vertical gap between the straight path (x0, y0)-(x1, y1) and the surface,
+     * checked at every sample the path crosses; negative if the path goes underground.
+     * Tree nodes whose highest point is below the path's lowest point over them are skipped.
+     */
+    public float clearance(float x0, float y0, float x1, float y1) {
+        if (x1 < x0) {
+            float t = x0; x0 = x1; x1 = t;
+            t = y0; y0 = y1; y1 = t;
+        }
+        float best = Math.min(y0 - heightAt(x0), y1 - heightAt(x1));
+        int first = Math.max(0, (int)Math.ceil(x0 * invSpacing));
+        int last = Math.min(samples - 1, (int)Math.floor(x1 * invSpacing));
+        if (first > last) return best;
+        float dydx = x1 > x0 ? (y1 - y0) / (x1 - x0) : 0f;
+        return clearance(1, 0, leaves * block, first, last, x0, y0, dydx, best);
+    }
+
+    private float clearance(int node, int lo, int hi, int first, int last, float x0, float y0, float dydx, float best) {
+        int from = Math.max(lo, first), to = Math.min(hi - 1, last); // sample range of this node inside the path
+        if (from > to) return best;
+        // The path is a line, so its lowest point over [from, to] is at one end
+        float pathLow = Math.min(y0 + (from * spacing - x0) * dydx, y0 + (to * spacing - x0) * dydx);
+        if (pathLow - treeMax[node] >= best) return best;
+        if (node >= leaves) {
+            for (int i = from; i <= to; i++) {
+                best = Math.min(best, y0 + (i * spacing - x0) * dydx - heights.height(i));
+            }
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        best = clearance(2 * node, lo, mid, first, last, x0, y0, dydx, best);
+        return clearance(2 * node + 1, mid, hi, first, last, x0, y0, dydx, best);
+    }
+
+    private float extreme(float x0, float x1, boolean max) {
+        if (x1 < x0) { float t = x0; x0 = x1; x1 = t; }
+        // Interpolated ends, plus every sample strictly inside the range
+        float result = max ? Math.max(heightAt(x0), heightAt(x1)) : Math.min(heightAt(x0), heightAt(x1));
+        int first = Math.max(0, (int)Math.ceil(x0 * invSpacing));
+        int last = Math.min(samples - 1, (int)Math.floor(x1 * invSpacing));
+        if (first > last) return result;
+
+        int firstBlock = first / block, lastBlock = last / block;
+        if (firstBlock == lastBlock) return scan(first, last, max, result);
+        result = scan(first, firstBlock * block + block - 1, max, result);
+        result = scan(lastBlock * block, last, max, result);
+        // Whole blocks in between, bottom-up over the tree
+        float[] tree = max ? treeMax : treeMin;
+        int l = leaves + firstBlock + 1, r = leaves + lastBlock; // [l, r)
+        while (l < r) {
+            if ((l & 1) == 1) result = max ? Math.max(result, tree[l++]) : Math.min(result, tree[l++]);
+            if ((r & 1) == 1) result = max ? Math.max(result, tree[--r]) : Math.min(result, tree[--r]);
+            l >>= 1;
+            r >>= 1;
+        }
+        return result;
+    }
+
+    private float scan(int from, int to, boolean max, float result) {
+        for (int i = from; i <= to; i++) {
+            float h = heights.height(i);
+            result = max ? Math.max(result, h) : Math.min(result, h);
+        }
+        return result;
+    }
+}
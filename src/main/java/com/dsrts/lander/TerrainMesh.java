@@ -0,0 +1,66 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Terrain surface and landing pads baked once into a static vertex buffer.
+ * Every surface segment is a GL_LINES pair in x order, with pad segments coloured
+ * red in place, so drawing the visible slice is one draw call over a vertex range.
+ */
+public class TerrainMesh implements Disposable {
+    private static final int FLOATS_PER_VERTEX = 3; // x, y, packed colour
+
+    private final Mesh mesh;
+    private final float spacing;
+    private final int segments;
+
+    public TerrainMesh(float[] heights, float worldWidth, int[] padCenters, int padWidth) {
+        spacing = worldWidth / heights.length;
+        segments = heights.length - 1;
+
+        boolean[] pad = new boolean[segments];
+        for (int c = 0; c < padCenters.length; c++) {
+            int start = padCenters[c] - padWidth / 2;
+            int end = padCenters[c] + padWidth / 2;
+            for (int i = Math.max(0, start); i < Math.min(segments, end - 1); i++) pad[i] = true;
+        }
+
+        float white = Color.WHITE.toFloatBits();
+        float red = Color.RED.toFloatBits();
+        float[] vertices = new float[segments * 2 * FLOATS_PER_VERTEX];
+        int v = 0;
+        for (int i = 0; i < segments; i++) {
+            float color = pad[i] ? red : white;
+            vertices[v++] = i * spacing;
+            vertices[v++] = heights[i];
+            vertices[v++] = color;
+            vertices[v++] = (i + 1) * spacing;
+            vertices[v++] = heights[i + 1];
+            vertices[v++] = color;
+        }
+
+        mesh = new Mesh(true, segments * 2, 0,
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                VertexAttribute.ColorPacked());
+        mesh.setVertices(vertices);
+    }
+
+    /** Draws the segments overlapping [left, right] in world meters. Shader must already be bound. */
+    public void render(ShaderProgram shader, float left, float right) {
+        int first = Math.max(0, (int)Math.floor(left / spacing) - 1);
+        int last = Math.min(segments - 1, (int)Math.ceil(right / spacing));
+        if (last < first) return;
+        mesh.render(shader, GL20.GL_LINES, first * 2, (last - first + 1) * 2);
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+    }
+}
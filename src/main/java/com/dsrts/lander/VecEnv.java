@@ -0,0 +1,204 @@
+package com.dsrts.lander;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * N independent landers stepped in lockstep for learning and controller research.
+ * Each environment is a {@link LanderEnv} on its own terrain; one {@link #step()}
+ * reads every action, advances every environment by {@link Simulation#DT} and writes
+ * every observation, reward and done flag, split into contiguous ranges of
+ * environments across a worker pool.
+ *
+ * All I/O lives in direct, native-order buffers, so the same memory can be handed to
+ * native code or a Python process without copying. Per environment i:
+ * actions[i * ACTION_SIZE ...] are the left and right engine throttles in [-0.5, 1],
+ * observations[i * OBS_SIZE ...] follow the LanderEnv.OBS_* layout, rewards[i] is the
+ * step reward and dones[i] is one of the LanderEnv.DONE_* codes.
+ *
+ * A finished environment is reset within the same step: its observation is already
+ * the first one of the next episode, and the observation it finished on is kept in
+ * finalObservations for bootstrapping after a timeout.
+ *
+ * Usage: VecEnv [--envs N] [--steps N] [--threads N] [--seed N]
+ */
+public class VecEnv {
+    public static final int ACTION_SIZE = LanderEnv.ACTION_SIZE;
+    public static final int OBS_SIZE = LanderEnv.OBS_SIZE;
+
+    public final int count;
+    public final long maxEpisodeSteps;
+
+    public final ByteBuffer actionBuffer;
+    public final ByteBuffer observationBuffer;
+    public final ByteBuffer finalObservationBuffer;
+    public final ByteBuffer rewardBuffer;
+    public final ByteBuffer doneBuffer;
+    public final FloatBuffer actions;
+    public final FloatBuffer observations;
+    public final FloatBuffer finalObservations;
+    public final FloatBuffer rewards;
+
+    public long steps = 0; // calls to step()
+
+    private final LanderEnv[] envs;
+    private final Random[] rngs; // one per environment, so results do not depend on the thread count
+    private final long[] episodes;
+    private final long[] landings;
+    private final ExecutorService pool; // null to step on the calling thread
+    private final List<Callable<Void>> chunks = new ArrayList<>();
+
+    public VecEnv(int count, long seed, int threads, long maxEpisodeSteps) {
+        this.count = count;
+        this.maxEpisodeSteps = maxEpisodeSteps;
+        actionBuffer = direct(count * ACTION_SIZE * 4);
+        observationBuffer = direct(count * OBS_SIZE * 4);
+        finalObservationBuffer = direct(count * OBS_SIZE * 4);
+        rewardBuffer = direct(count * 4);
+        doneBuffer = direct(count);
+        actions = actionBuffer.asFloatBuffer();
+        observations = observationBuffer.asFloatBuffer();
+        finalObservations = finalObservationBuffer.asFloatBuffer();
+        rewards = rewardBuffer.asFloatBuffer();
+
+        envs = new LanderEnv[count];
+        rngs = new Random[count];
+        episodes = new long[count];
+        landings = new long[count];
+        Random seeds = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            rngs[i] = new Random(seeds.nextLong());
+            float[] heights = new float[Terrain.terrainHeights.length];
+            Terrain.generateHeights(heights, rngs[i].nextLong());
+            envs[i] = new LanderEnv(heights, false);
+        }
+
+        threads = Math.max(1, Math.min(threads, count));
+        pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        // A few ranges per worker evens out environments that happen to be in contact
+        int ranges = threads > 1 ? threads * 4 : 1;
+        for (int r = 0; r < ranges; r++) {
+            int from = (int)((long)count * r / ranges);
+            int to = (int)((long)count * (r + 1) / ranges);
+            if (from < to) chunks.add(() -> { stepRange(from, to); return null; });
+        }
+        reset();
+    }
+
+    /** Starts a new episode in every environment and writes the first observations. */
+    public void reset() {
+        for (int i = 0; i < count; i++) {
+            resetEnv(i);
+            doneBuffer.put(i, LanderEnv.DONE_RUNNING);
+            rewards.put(i, 0f);
+        }
+    }
+
+    /** Applies the actions, advances every environment one tick and writes the results. */
+    public void step() {
+        if (pool == null) {
+            stepRange(0, count);
+        } else {
+            try {
+                for (Future<Void> f : pool.invokeAll(chunks)) f.get();
+            } catch (Exception e) {
+                throw new RuntimeException("Environment step failed", e);
+            }
+        }
+        steps++;
+    }
+
+    public long episodes() {
+        long n = 0;
+        for (long e : episodes) n += e;
+        return n;
+    }
+
+    public long landings() {
+        long n = 0;
+        for (long l : landings) n += l;
+        return n;
+    }
+
+    public Simulation simulation(int env) {
+        return envs[env].simulation;
+    }
+
+    public void close() {
+        if (pool != null) pool.shutdown();
+        for (LanderEnv env : envs) env.dispose();
+    }
+
+    private void stepRange(int from, int to) {
+        for (int i = from; i < to; i++) stepEnv(i);
+    }
+
+    private void stepEnv(int i) {
+        LanderEnv env = envs[i];
+        byte done = env.step(actions.get(i * ACTION_SIZE), actions.get(i * ACTION_SIZE + 1), maxEpisodeSteps,
+                observations, i * OBS_SIZE);
+        rewards.put(i, env.reward);
+        doneBuffer.put(i, done);
+        if (done != LanderEnv.DONE_RUNNING) {
+            for (int k = 0; k < OBS_SIZE; k++) {
+                finalObservations.put(i * OBS_SIZE + k, observations.get(i * OBS_SIZE + k));
+            }
+            episodes[i]++;
+            if (done == LanderEnv.DONE_LANDED) landings[i]++;
+            resetEnv(i);
+        }
+    }
+
+    /** Puts environment i at a random start over its terrain and writes its observation. */
+    private void resetEnv(int i) {
+        LanderEnv env = envs[i];
+        Simulation sim = env.simulation;
+        env.reset(BatchRunner.Scenario.random(rngs[i], sim.padCenters, sim.worldWidth), observations, i * OBS_SIZE);
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /** Throughput benchmark: hover-ish random throttles in every environment. */
+    public static void main(String[] args) {
+        int envs = 256;
+        long stepCount = 2000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1L;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--envs": envs = Integer.parseInt(args[++i]); break;
+                case "--steps": stepCount = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        VecEnv env = new VecEnv(envs, seed, threads, 60L * 60);
+        try {
+            Random rng = new Random(seed);
+            long start = System.nanoTime();
+            for (long t = 0; t < stepCount; t++) {
+                for (int i = 0; i < envs * ACTION_SIZE; i++) env.actions.put(i, 0.1f + rng.nextFloat() * 0.2f);
+                env.step();
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long envSteps = envs * stepCount;
+            System.err.printf("envs=%d threads=%d steps=%d episodes=%d landed=%d%n",
+                    envs, threads, stepCount, env.episodes(), env.landings());
+            System.err.printf("%.0f env steps/s, %.1fM env steps/min%n", envSteps / elapsed, envSteps / elapsed * 60 / 1e6);
+        } finally {
+            env.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dsrts.lander;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FbwGainsTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void profileRoundTripsAndMissingKeysDefault() throws Exception {
+        FbwGains gains = FbwGains.fromVector(new float[] {4f, 0.5f, 2f, 0.06f, 0.03f, 0.2f, 0.1f, 1.5f});
+        Path file = dir.resolve("gains.properties");
+        gains.save(file, "test");
+        assertArrayEquals(gains.toVector(), FbwGains.load(file).toVector());
+
+        Files.writeString(file, "kpVy=5\n");
+        FbwGains partial = FbwGains.load(file);
+        assertEquals(5f, partial.kpVy);
+        assertEquals(FbwGains.DEFAULTS.kdAngle, partial.kdAngle);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dsrts.lander;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FleetTest {
+    @Test
+    public void landersShareTheWorldWithoutTouching() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 5L);
+        Fleet fleet = new Fleet(heights, Terrain.padCenters, 40, new Random(5));
+        try {
+            // Stack two landers on the same spot: with lander-lander filtering they pass through each other
+            LanderState a = fleet.landers[0], b = fleet.landers[1];
+            b.body.setTransform(a.body.getPosition(), a.body.getAngle());
+            b.x = a.x; b.y = a.y;
+            fleet.scenarios[1].pad = fleet.scenarios[0].pad;
+
+            for (int i = 0; i < 150 * 60; i++) fleet.step();
+
+            assertEquals(0, fleet.countAlive() - fleet.countLanded(), "every lander should have finished");
+            assertTrue(fleet.countLanded() >= 36, "landed " + fleet.countLanded() + " of 40");
+            assertTrue(a.landed && b.landed, "overlapping landers should both land");
+        } finally {
+            fleet.dispose();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dsrts.lander;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void replayReproducesTheFlight() throws Exception {
+        long seed = 1234L;
+        Path file = dir.resolve("flight" + FlightReplay.EXTENSION);
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, seed);
+
+        // Hold random keys for random stretches, with the odd FBW toggle and goal tap
+        Random rng = new Random(7);
+        int ticks = 3000;
+        int[] inputs = new int[ticks];
+        int held = 0;
+        for (int i = 0; i < ticks; i++) {
+            if (rng.nextInt(40) == 0) held = rng.nextInt(Controls.HELD_MASK + 1);
+            int presses = rng.nextInt(200) == 0 ? 1 << (5 + rng.nextInt(Controls.BITS - 5)) : 0;
+            inputs[i] = held | presses;
+        }
+
+        Simulation live = new Simulation(heights);
+        try (FlightRecorder recorder = new FlightRecorder(file, seed, FbwGains.DEFAULTS)) {
+            live.recorder = recorder;
+            for (int input : inputs) live.step(input);
+        }
+        assertTrue(Files.size(file) < ticks, "log should be run-length encoded");
+
+        FlightLog log = FlightLog.open(file);
+        assertEquals(seed, log.seed);
+        assertEquals(ticks, log.tickCount);
+        for (int i = 0; i < ticks; i++) assertEquals(inputs[i], log.next(), "tick " + i);
+        assertFalse(log.hasNext());
+
+        BatchRunner.Result result = FlightReplay.replay(log, new float[heights.length]);
+        assertEquals(ticks, result.steps);
+        assertEquals(live.lander.fuelMass, result.fuelLeft);
+        assertEquals(live.lander.touchdownSpeed, result.touchdownSpeed);
+        live.dispose();
+    }
+
+    @Test
+    public void replayFliesWithTheRecordedGains() throws Exception {
+        long seed = 99L;
+        Path file = dir.resolve("tuned" + FlightReplay.EXTENSION);
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, seed);
+        FbwGains tuned = new FbwGains();
+        tuned.kpVy = 6f;
+        tuned.kiVy = 0.2f;
+        tuned.vyErrorSmoothing = 0.4f;
+
+        // Hold a descent under FBW, where the gains decide every throttle command
+        Simulation live = new Simulation(heights);
+        live.lander.gains = tuned;
+        try (FlightRecorder recorder = new FlightRecorder(file, seed, tuned)) {
+            live.recorder = recorder;
+            live.step(Controls.TOGGLE_FBW);
+            for (int i = 0; i < 600; i++) live.step(i % 90 == 0 ? Controls.GOAL_VY_DOWN : 0);
+        }
+
+        FlightLog log = FlightLog.open(file);
+        assertArrayEquals(tuned.toVector(), log.gains.toVector());
+        BatchRunner.Result result = FlightReplay.replay(log, new float[heights.length]);
+        assertEquals(live.lander.fuelMass, result.fuelLeft);
+        assertEquals(live.lander.touchdownSpeed, result.touchdownSpeed);
+        live.dispose();
+    }
+}
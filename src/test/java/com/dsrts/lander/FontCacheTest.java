@@ -0,0 +1,73 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3FileHandle;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FontCacheTest {
+    static final String CHARS = "\u0000 ABCabc0123:.-";
+
+    @Test
+    public void cachedFontMatchesTheRasterizedOne(@TempDir Path dir) {
+        GdxNativesLoader.load();
+        FileHandle ttf = new Lwjgl3FileHandle(Startup.FONT, Files.FileType.Classpath);
+        FontCache.Atlas fresh = FontCache.prepare(ttf, 22, CHARS, dir);
+        FontCache.Atlas cached = FontCache.prepare(ttf, 22, CHARS, dir);
+        FontCache.Atlas otherSize = FontCache.prepare(ttf, 16, CHARS, dir);
+        try {
+            assertFalse(fresh.fromCache);
+            assertTrue(cached.fromCache);
+            assertFalse(otherSize.fromCache, "size is part of the key");
+
+            BitmapFont.BitmapFontData a = fresh.data, b = cached.data;
+            assertEquals(a.lineHeight, b.lineHeight);
+            assertEquals(a.capHeight, b.capHeight);
+            assertEquals(a.ascent, b.ascent);
+            assertEquals(a.descent, b.descent);
+            assertEquals(a.down, b.down);
+            assertEquals(a.spaceXadvance, b.spaceXadvance);
+            assertEquals(a.xHeight, b.xHeight);
+            for (int i = 0; i < CHARS.length(); i++) {
+                char c = CHARS.charAt(i);
+                BitmapFont.Glyph g = a.getGlyph(c), h = b.getGlyph(c);
+                if (g == null) {
+                    assertNull(h, "glyph " + (int)c);
+                    continue;
+                }
+                assertNotNull(h, "glyph " + (int)c);
+                assertEquals(g.page, h.page);
+                assertEquals(g.srcX, h.srcX);
+                assertEquals(g.srcY, h.srcY);
+                assertEquals(g.width, h.width);
+                assertEquals(g.height, h.height);
+                assertEquals(g.xoffset, h.xoffset);
+                assertEquals(g.yoffset, h.yoffset);
+                assertEquals(g.xadvance, h.xadvance);
+                for (int k = 0; k < CHARS.length(); k++) {
+                    assertEquals(g.getKerning(CHARS.charAt(k)), h.getKerning(CHARS.charAt(k)), "kerning " + c + CHARS.charAt(k));
+                }
+            }
+
+            assertEquals(fresh.pages.length, cached.pages.length);
+            for (int p = 0; p < fresh.pages.length; p++) {
+                assertEquals(fresh.pages[p].getWidth(), cached.pages[p].getWidth());
+                assertEquals(fresh.pages[p].getHeight(), cached.pages[p].getHeight());
+                for (int y = 0; y < fresh.pages[p].getHeight(); y++) {
+                    for (int x = 0; x < fresh.pages[p].getWidth(); x++) {
+                        assertEquals(fresh.pages[p].getPixel(x, y), cached.pages[p].getPixel(x, y), "pixel " + x + "," + y);
+                    }
+                }
+            }
+        } finally {
+            fresh.dispose();
+            cached.dispose();
+            otherSize.dispose();
+        }
+    }
+}
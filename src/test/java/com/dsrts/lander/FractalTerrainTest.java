@@ -0,0 +1,47 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FractalTerrainTest {
+    @Test
+    public void outputDoesNotDependOnThreadsOrRangeOrder() {
+        int samples = 5 * FractalTerrain.RANGE + 1234;
+        int[] pads = Terrain.layoutPads(samples);
+        long seed = 42L;
+
+        float[] single = new float[samples];
+        FractalTerrain.generate(single, pads, Terrain.padWidth, seed, 1);
+        float[] parallel = new float[samples];
+        FractalTerrain.generate(parallel, pads, Terrain.padWidth, seed, 3);
+        assertArrayEquals(single, parallel);
+
+        // Odd-sized ranges filled back to front
+        float[] pieces = new float[samples];
+        for (int to = samples; to > 0; to -= 9999) {
+            FractalTerrain.fill(pieces, Math.max(0, to - 9999), to, pads, Terrain.padWidth, seed);
+        }
+        assertArrayEquals(single, pieces);
+
+        float[] other = new float[samples];
+        FractalTerrain.generate(other, pads, Terrain.padWidth, seed + 1, 1);
+        assertFalse(java.util.Arrays.equals(single, other), "seed should change the terrain");
+    }
+
+    @Test
+    public void padsAreFlatAndReliefStaysInTheWorld() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 7L);
+        for (int c : Terrain.padCenters) {
+            for (int i = c - Terrain.padWidth / 2; i < c + Terrain.padWidth / 2; i++) {
+                assertEquals(Terrain.TERRAIN_BASE, heights[i], "sample " + i);
+            }
+        }
+        float max = 0;
+        for (float h : heights) {
+            assertTrue(h >= Terrain.TERRAIN_BASE);
+            max = Math.max(max, h);
+        }
+        assertTrue(max > Terrain.TERRAIN_BASE + 10f && max < Lander.WORLD_HEIGHT_M / 2f, "max " + max);
+    }
+}
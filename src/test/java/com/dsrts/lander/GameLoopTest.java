@@ -0,0 +1,31 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameLoopTest {
+    private static final double DT = 1.0 / 60.0;
+
+    @Test
+    public void highRefreshFramesStepAtPhysicsRate() {
+        GameLoop loop = new GameLoop(DT, GameLoop.DEFAULT_MAX_STEPS);
+        int steps = 0;
+        for (int i = 0; i < 144; i++) {
+            steps += loop.advance(1.0 / 144.0);
+            float alpha = loop.alpha();
+            assertTrue(alpha >= 0f && alpha < 1f);
+        }
+        assertTrue(Math.abs(steps - 60) <= 1, "one second of frames should run ~60 steps, ran " + steps);
+        assertEquals(0, loop.droppedSteps);
+    }
+
+    @Test
+    public void hitchIsClampedInsteadOfCaughtUp() {
+        GameLoop loop = new GameLoop(DT, 5);
+        assertEquals(5, loop.advance(2.0));
+        assertEquals(1, loop.clampedFrames);
+        assertEquals(115, loop.droppedSteps);
+        // Nothing left over to spiral on
+        assertEquals(1, loop.advance(DT));
+    }
+}
@@ -0,0 +1,36 @@
+package com.dsrts.lander;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+    @Test
+    public void percentilesWithinBucketResolution() {
+        Random rng = new Random(3);
+        Histogram h = new Histogram();
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // Frame-time like: mostly ~16 ms with a long tail
+            values[i] = 16_000_000L + (long)(rng.nextDouble() * rng.nextDouble() * rng.nextDouble() * 200_000_000L);
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int)Math.ceil(p * values.length) - 1];
+            assertEquals(exact, h.percentile(p), exact * 0.035, "p" + p);
+        }
+        assertEquals(values[values.length - 1], h.max());
+        assertEquals(values.length, h.count());
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        for (long v = 0; v < 1_000_000; v += 7) {
+            int i = Histogram.index(v);
+            assertTrue(Histogram.lowerBound(i) <= v && v <= Histogram.upperBound(i), "value " + v);
+        }
+        assertEquals(Histogram.index(Long.MAX_VALUE), Histogram.index(1L << 50));
+    }
+}
@@ -0,0 +1,30 @@
+package com.dsrts.lander;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HudFormatTest {
+    @Test
+    public void matchesStringFormat() {
+        Random rng = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            float v = (rng.nextFloat() * 2f - 1f) * (i % 3 == 0 ? 2f : 500f);
+
+            sb.setLength(0);
+            assertEquals(String.format("%6.1f", v), HudFormat.appendFixed(sb, v, 6, 1, false).toString());
+            sb.setLength(0);
+            assertEquals(String.format("%+5.1f", v), HudFormat.appendFixed(sb, v, 5, 1, true).toString());
+            sb.setLength(0);
+            assertEquals(String.format("%3.0f", v), HudFormat.appendFixed(sb, v, 3, 0, false).toString());
+        }
+    }
+
+    @Test
+    public void quantizeTracksDisplayedText() {
+        assertEquals(HudFormat.quantize(12.34f, 1), HudFormat.quantize(12.31f, 1));
+        assertNotEquals(HudFormat.quantize(12.34f, 1), HudFormat.quantize(12.36f, 1));
+        assertNotEquals(HudFormat.quantize(-0.01f, 1), HudFormat.quantize(0.01f, 1));
+    }
+}
@@ -0,0 +1,78 @@
+package com.dsrts.lander;
+
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapFileTest {
+    @Test
+    public void mappedSamplesMatchTheGeneratedMap(@TempDir Path dir) throws Exception {
+        int samples = 20_000;
+        float width = samples * Terrain.SAMPLE_SPACING_M;
+        int[] pads = Terrain.layoutPads(samples);
+        float[] heights = new float[samples];
+        FractalTerrain.generate(heights, pads, Terrain.padWidth, 5L, 1);
+
+        // Streamed a range at a time, through the fill overload that writes at an offset
+        Path file = dir.resolve("map.lmap");
+        MapFile.generate(file, samples, 5L);
+        MapFile map = MapFile.open(file, 12); // 4096-sample segments, so reads cross segment boundaries
+
+        assertEquals(samples, map.samples());
+        assertEquals(width, map.worldWidth);
+        assertArrayEquals(pads, map.padCenters);
+        for (int i = 0; i < samples; i++) assertEquals(heights[i], map.height(i), "sample " + i);
+
+        TerrainIndex expected = new TerrainIndex(heights, width, pads, Terrain.padWidth);
+        TerrainIndex index = map.index();
+        assertEquals(expected.maxHeight(), index.maxHeight());
+        for (int q = 0; q < 200; q++) {
+            float x0 = q * width / 200f, x1 = Math.min(width, x0 + (q % 3 == 0 ? 3f : 400f));
+            assertEquals(expected.maxHeight(x0, x1), index.maxHeight(x0, x1), "max over " + x0 + ".." + x1);
+            assertEquals(expected.minHeight(x0, x1), index.minHeight(x0, x1), "min over " + x0 + ".." + x1);
+        }
+
+        MapFile.Region region = map.region(pads[3], 4800);
+        assertEquals(4800, region.samples());
+        for (int i = 0; i < region.samples(); i++) assertEquals(heights[region.first + i], region.height(i));
+        for (int p : region.padCenters) assertTrue(p >= 0 && p < 4800);
+        assertTrue(region.padCenters.length > 0);
+    }
+
+    @Test
+    public void regionFliesLikeTheSameHeightsInMemory(@TempDir Path dir) throws Exception {
+        int samples = 4800 * 3;
+        int[] pads = Terrain.layoutPads(samples);
+        float[] heights = new float[samples];
+        FractalTerrain.generate(heights, pads, Terrain.padWidth, 9L, 1);
+        Path file = dir.resolve("map.lmap");
+        MapFile.write(file, heights, samples * Terrain.SAMPLE_SPACING_M, pads, Terrain.padWidth);
+
+        MapFile.Region region = MapFile.open(file).region(samples / 2, samples);
+        Simulation mapped = new Simulation(region);
+        Simulation memory = new Simulation(heights, samples * Terrain.SAMPLE_SPACING_M, pads, true);
+        try {
+            BatchRunner.Scenario s = BatchRunner.Scenario.random(new Random(2), pads, samples * Terrain.SAMPLE_SPACING_M);
+            for (Simulation sim : new Simulation[] {mapped, memory}) {
+                sim.place(s.x, s.y, s.vx, s.vy, s.angle);
+                sim.lander.fuelMass = s.fuelMass;
+                sim.lander.flyByWireMode = true;
+            }
+            for (int i = 0; i < 60 * 60 * 5 && memory.lander.alive && !memory.lander.landed; i++) {
+                BatchRunner.autopilot(memory, s);
+                memory.step();
+                BatchRunner.autopilot(mapped, s);
+                mapped.step();
+                assertEquals(memory.lander.x, mapped.lander.x, "x at step " + i);
+                assertEquals(memory.lander.y, mapped.lander.y, "y at step " + i);
+            }
+            assertTrue(memory.lander.landed);
+            assertTrue(mapped.lander.landed);
+        } finally {
+            mapped.dispose();
+            memory.dispose();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.dsrts.lander;
+
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhysicsAllocationTest {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Hover under FBW, then drop onto a pad so the contact callbacks run too
+    private static void fly(Simulation sim) {
+        LanderState lander = sim.lander;
+        float padX = Terrain.padCenters[0] * Lander.WORLD_WIDTH_M / sim.terrainHeights.length;
+        sim.place(padX, 40f, 0f, 0f, 0f);
+        lander.alive = true;
+        lander.landed = false;
+        lander.flyByWireMode = true;
+        lander.goalAngle = 0f;
+        lander.goalVy = 0f;
+        for (int i = 0; i < 2000; i++) {
+            lander.fuelMass = 1500f;
+            sim.step();
+        }
+        lander.goalVy = -1f;
+        lander.flyByWireMode = false;
+        for (int i = 0; i < 200; i++) sim.step();
+        lander.flyByWireMode = true;
+        for (int i = 0; i < 2000; i++) sim.step();
+    }
+
+    @Test
+    public void tickDoesNotAllocateOnceWarm() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 1L);
+        Simulation sim = new Simulation(heights);
+        try {
+            for (int i = 0; i < 3; i++) fly(sim);
+
+            // Best of a few rounds: a late JIT deoptimization can materialize
+            // scalar-replaced objects once without the tick itself allocating
+            long overhead = -allocatedBytes() + allocatedBytes();
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < 3 && allocated != 0; round++) {
+                long before = allocatedBytes();
+                fly(sim);
+                allocated = Math.min(allocated, allocatedBytes() - before - overhead);
+            }
+
+            assertTrue(sim.lander.landed, "scenario should end on the pad");
+            assertEquals(0, allocated, "simulation tick allocated " + allocated + " bytes");
+        } finally {
+            sim.dispose();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlannerTest {
+    @Test
+    public void plansALandingAndRefinesIt() throws Exception {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 5L);
+        Simulation sim = new Simulation(heights);
+        Planner planner = new Planner(heights, Lander.WORLD_WIDTH_M, Terrain.padCenters, 2);
+        try {
+            planner.request(sim.lander);
+            while (planner.busy()) Thread.sleep(1);
+            Planner.Plan first = planner.latest();
+            assertNotNull(first);
+            assertEquals(BatchRunner.OUTCOME_LANDED, first.outcome);
+            assertTrue(first.touchdownSpeed >= 0 && first.touchdownSpeed < 2f, "touchdown " + first.touchdownSpeed);
+            assertEquals(sim.lander.x, first.path[0]);
+            assertEquals(sim.lander.y, first.path[1]);
+
+            // The next search starts from the previous best, so from the same state it can only improve
+            planner.request(sim.lander);
+            while (planner.busy()) Thread.sleep(1);
+            assertTrue(planner.latest().score >= first.score);
+            assertFalse(sim.lander.landed, "planning must not touch the live lander");
+        } finally {
+            planner.shutdown();
+            sim.dispose();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimServerTest {
+    static final int STEPS = 200;
+
+    @Test
+    public void pipelinedSessionsMatchALocalEnvironment() throws Exception {
+        try (SimServer server = new SimServer(0, 16, 10_000)) {
+            server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(3);
+            try {
+                List<Future<?>> runs = new ArrayList<>();
+                for (int c = 0; c < 3; c++) {
+                    long seed = 100 + c;
+                    runs.add(clients.submit(() -> { flyAndCompare(server.port(), seed); return null; }));
+                }
+                for (Future<?> f : runs) f.get();
+            } finally {
+                clients.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void stepBeforeResetIsAnError() throws Exception {
+        try (SimServer server = new SimServer(0, 4, 10_000);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            server.start();
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            out.writeByte(SimServer.STEP);
+            out.writeFloat(0f);
+            out.writeFloat(0f);
+            out.writeByte(SimServer.RESET); // the session carries on after an error
+            out.writeLong(1L);
+            out.flush();
+            assertEquals(SimServer.ERROR, in.readByte());
+            assertEquals("STEP before RESET", in.readUTF());
+            assertEquals(SimServer.OK, in.readByte());
+        }
+    }
+
+    private static void flyAndCompare(int port, long seed) throws Exception {
+        BatchRunner.Scenario s = SimServer.scenario(seed);
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, s.terrainSeed);
+        LanderEnv local = new LanderEnv(heights, true);
+        FloatBuffer obs = FloatBuffer.allocate(LanderEnv.OBS_SIZE);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            // The whole episode in one write
+            out.writeByte(SimServer.RESET);
+            out.writeLong(seed);
+            for (int t = 0; t < STEPS; t++) {
+                out.writeByte(SimServer.STEP);
+                out.writeFloat(throttle(t));
+                out.writeFloat(throttle(t + 7));
+            }
+            out.writeByte(SimServer.QUIT);
+            out.flush();
+
+            local.reset(s, obs, 0);
+            assertEquals(SimServer.OK, in.readByte());
+            for (int i = 0; i < LanderEnv.OBS_SIZE; i++) assertEquals(obs.get(i), in.readFloat());
+            for (int t = 0; t < STEPS; t++) {
+                byte done = local.step(throttle(t), throttle(t + 7), 10_000, obs, 0);
+                assertEquals(SimServer.OK, in.readByte());
+                for (int i = 0; i < LanderEnv.OBS_SIZE; i++) assertEquals(obs.get(i), in.readFloat(), "step " + t);
+                assertEquals(local.reward, in.readFloat());
+                assertEquals(done, in.readByte());
+            }
+            assertEquals(-1, in.read(), "QUIT closes the connection");
+        } finally {
+            local.dispose();
+        }
+    }
+
+    private static float throttle(int t) {
+        return (t / 15) % 2 == 0 ? 0.3f : 0.1f;
+    }
+}
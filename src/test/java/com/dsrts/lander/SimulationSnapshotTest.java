@@ -0,0 +1,54 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationSnapshotTest {
+    @Test
+    public void restoredBranchFliesExactlyLikeTheOriginal() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 11L);
+        SimulationPool pool = new SimulationPool(heights, Lander.WORLD_WIDTH_M, Terrain.padCenters, false);
+        Simulation original = pool.acquire();
+        Simulation branch = pool.acquire();
+        try {
+            BatchRunner.Scenario s = new BatchRunner.Scenario();
+            s.pad = 2;
+            original.place(Terrain.padCenters[s.pad] * Terrain.SAMPLE_SPACING_M - 30f, 120f, 1f, -2f, 3f);
+            original.lander.flyByWireMode = true;
+            for (int i = 0; i < 300; i++) {
+                BatchRunner.autopilot(original, s);
+                original.step();
+            }
+            assertTrue(original.lander.thrustPending, "FBW leaves engine force queued for the next step");
+
+            // Dirty the branch with an unrelated crash first
+            branch.place(100f, 60f, 0f, -15f, 20f);
+            for (int i = 0; i < 300 && branch.lander.alive; i++) branch.step();
+            assertFalse(branch.lander.alive);
+
+            float[] snapshot = new float[SimulationSnapshot.SIZE];
+            SimulationSnapshot.capture(original, snapshot, 0);
+            SimulationSnapshot.restore(branch, snapshot, 0);
+            assertEquals(original.steps, branch.steps);
+
+            for (int i = 0; i < 240; i++) {
+                BatchRunner.autopilot(original, s);
+                original.step();
+                BatchRunner.autopilot(branch, s);
+                branch.step();
+                assertEquals(original.lander.x, branch.lander.x, "x at step " + i);
+                assertEquals(original.lander.y, branch.lander.y, "y at step " + i);
+                assertEquals(original.lander.angle, branch.lander.angle);
+                assertEquals(original.lander.fuelMass, branch.lander.fuelMass);
+                assertEquals(original.lander.integralVyError, branch.lander.integralVyError);
+            }
+            assertTrue(branch.lander.alive);
+        } finally {
+            pool.release(original);
+            pool.release(branch);
+            pool.dispose();
+        }
+        assertEquals(2, pool.created());
+    }
+}
@@ -0,0 +1,83 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+    @Test
+    public void parkedLanderStopsSteppingUntilThrustReturns() {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 5L);
+        Simulation sim = new Simulation(heights);
+        try {
+            BatchRunner.Scenario s = new BatchRunner.Scenario();
+            s.pad = 3;
+            sim.place(Terrain.padCenters[s.pad] * Terrain.SAMPLE_SPACING_M + 20f, 100f, 0f, -2f, 0f);
+            sim.lander.flyByWireMode = true;
+            while (sim.lander.alive && !sim.lander.landed && sim.steps < 60 * 120) {
+                BatchRunner.autopilot(sim, s);
+                sim.step();
+            }
+            assertTrue(sim.lander.landed, "should land");
+            assertTrue(sim.contactFreeSteps > sim.steps / 2, "most of the descent has no contact: " + sim.contactFreeSteps);
+
+            for (int i = 0; i < 5 * 60; i++) sim.step();
+            assertTrue(sim.lander.landed);
+            assertTrue(sim.restingSteps > 60, "parked lander should sleep: " + sim.restingSteps);
+            float x = sim.lander.x, y = sim.lander.y;
+            long resting = sim.restingSteps;
+            sim.step();
+            assertEquals(resting + 1, sim.restingSteps);
+            assertEquals(x, sim.lander.x);
+            assertEquals(y, sim.lander.y);
+
+            // Throttling up by hand brings the engines and the world back
+            sim.lander.flyByWireMode = false;
+            sim.lander.up = true;
+            sim.step(); // still at rest; the thrust it commands wakes the body for the next step
+            for (int i = 0; i < 5 * 60; i++) sim.step();
+            assertEquals(resting + 2, sim.restingSteps);
+            assertTrue(sim.lander.y > y + 1f, "should lift off");
+        } finally {
+            sim.dispose();
+        }
+    }
+
+    @Test
+    public void hybridIntegratorTracksBox2D() {
+        Random rng = new Random(21);
+        for (int run = 0; run < 6; run++) {
+            BatchRunner.Scenario s = BatchRunner.Scenario.random(rng, Terrain.padCenters, Lander.WORLD_WIDTH_M);
+            float[] heights = new float[Terrain.terrainHeights.length];
+            Terrain.generateHeights(heights, s.terrainSeed);
+            Simulation box2d = new Simulation(heights);
+            Simulation hybrid = new Simulation(heights);
+            hybrid.hybrid = true;
+            try {
+                for (Simulation sim : new Simulation[] {box2d, hybrid}) {
+                    sim.place(s.x, s.y, s.vx, s.vy, s.angle);
+                    sim.lander.fuelMass = s.fuelMass;
+                    sim.lander.flyByWireMode = true;
+                }
+                while (box2d.lander.alive && !box2d.lander.landed && box2d.steps < 60 * 150) {
+                    BatchRunner.autopilot(box2d, s);
+                    box2d.step();
+                    BatchRunner.autopilot(hybrid, s);
+                    hybrid.step();
+                    assertEquals(box2d.lander.x, hybrid.lander.x, 1e-3f, "x at step " + box2d.steps);
+                    assertEquals(box2d.lander.y, hybrid.lander.y, 1e-3f, "y at step " + box2d.steps);
+                    assertEquals(box2d.lander.angle, hybrid.lander.angle, 1e-2f);
+                }
+                assertTrue(box2d.lander.landed, "run " + run);
+                assertTrue(hybrid.lander.landed, "run " + run);
+                assertEquals(box2d.steps, hybrid.steps);
+                assertEquals(box2d.lander.fuelMass, hybrid.lander.fuelMass, 0.1f);
+                assertTrue(hybrid.analyticSteps > hybrid.steps / 2, "most of the descent skips Box2D: " + hybrid.analyticSteps);
+            } finally {
+                box2d.dispose();
+                hybrid.dispose();
+            }
+        }
+    }
+}
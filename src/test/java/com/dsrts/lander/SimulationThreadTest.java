@@ -0,0 +1,56 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationThreadTest {
+    @Test
+    public void inputQueueKeepsPressesAndNewestHeldKeys() {
+        SimulationThread.InputQueue queue = new SimulationThread.InputQueue(4);
+        queue.offer(Controls.UP);
+        queue.offer(Controls.UP | Controls.TOGGLE_FBW);
+        queue.offer(Controls.LEFT);
+        assertEquals(Controls.LEFT | Controls.TOGGLE_FBW, queue.drain());
+        assertEquals(Controls.LEFT, queue.drain(), "held keys persist, presses are consumed");
+
+        // A full ring folds presses into the next word that fits
+        for (int i = 0; i < 4; i++) queue.offer(Controls.DOWN);
+        queue.offer(Controls.GOAL_VY_UP);
+        assertEquals(Controls.DOWN, queue.drain());
+        queue.offer(Controls.RIGHT);
+        assertEquals(Controls.RIGHT | Controls.GOAL_VY_UP, queue.drain());
+    }
+
+    @Test
+    public void publishesTicksWhileTheReaderHoldsASnapshot() throws Exception {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 1L);
+        Simulation sim = new Simulation(heights);
+        SimulationThread thread = new SimulationThread(sim, null, GameLoop.DEFAULT_MAX_STEPS);
+        try {
+            SimulationThread.Snapshot first = thread.latest();
+            float startY = first.state.y;
+            thread.start();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            long lastTick = -1;
+            while (System.nanoTime() < deadline && lastTick < 60) {
+                SimulationThread.Snapshot s = thread.latest();
+                assertTrue(s.tick >= lastTick, "ticks never go backwards");
+                lastTick = s.tick;
+                Thread.sleep(5);
+            }
+            assertTrue(lastTick >= 60, "sim thread should keep stepping, reached " + lastTick);
+            assertTrue(thread.latest().state.y < startY, "lander should have descended");
+
+            // Timings come over with the snapshot: every step of every wake so far
+            SimulationThread.Snapshot s = thread.latest();
+            assertEquals(s.tick, Math.round(s.stepsPerWake.mean() * s.stepsPerWake.count()));
+            assertTrue(s.worldStepNanos.count() > 0 && s.worldStepNanos.count() <= s.tick);
+            assertEquals(s.worldStepNanos.count(), s.controllerNanos.count());
+        } finally {
+            thread.stop();
+            sim.dispose();
+        }
+        assertTrue(sim.steps >= 60);
+    }
+}
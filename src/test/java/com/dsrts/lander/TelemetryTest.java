@@ -0,0 +1,70 @@
+package com.dsrts.lander;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TelemetryTest {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int TICKS = 3000;
+
+    @TempDir
+    Path dir;
+
+    // Descend under FBW from the start position, remembering what was captured
+    private static void fly(Simulation sim, float[] y, float[] fuel) {
+        LanderState lander = sim.lander;
+        sim.place(Lander.WORLD_WIDTH_M / 2f, 120f, 0f, 0f, 0f);
+        lander.fuelMass = 1500f;
+        lander.flyByWireMode = true;
+        lander.goalAngle = 0f;
+        lander.goalVy = -2f;
+        for (int i = 0; i < TICKS; i++) {
+            sim.step();
+            y[i] = lander.y;
+            fuel[i] = lander.fuelMass;
+        }
+    }
+
+    @Test
+    public void capturesEveryTickWithoutAllocating() throws Exception {
+        float[] heights = new float[Terrain.terrainHeights.length];
+        Terrain.generateHeights(heights, 1L);
+        Simulation sim = new Simulation(heights);
+        Path file = dir.resolve("flight.tlm");
+        float[] expectedY = new float[TICKS];
+        float[] expectedFuel = new float[TICKS];
+        int rounds = 1; // the warm-up flight
+
+        try (Telemetry telemetry = new Telemetry(file, 1 << 16)) {
+            sim.telemetry = telemetry;
+            fly(sim, expectedY, expectedFuel); // warm up
+
+            // Best of a few rounds, as in PhysicsAllocationTest
+            long thread = Thread.currentThread().getId();
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < 3 && allocated != 0; round++) {
+                long before = THREADS.getThreadAllocatedBytes(thread);
+                fly(sim, expectedY, expectedFuel);
+                allocated = Math.min(allocated, THREADS.getThreadAllocatedBytes(thread) - before);
+                rounds++;
+            }
+            assertEquals(0, allocated, "tick with capture allocated " + allocated + " bytes");
+            assertEquals(0, telemetry.dropped());
+        } finally {
+            sim.dispose();
+        }
+
+        Telemetry.Frames frames = Telemetry.read(file);
+        assertEquals(rounds * TICKS, frames.count);
+        for (int i = 0; i < TICKS; i++) {
+            int f = (rounds - 1) * TICKS + i; // last flight flown
+            assertEquals(f, frames.ticks[f]);
+            assertEquals(expectedY[i], frames.columns[1][f], 0.0006f);
+            assertEquals(expectedFuel[i], frames.columns[9][f], 0.006f);
+        }
+    }
+}
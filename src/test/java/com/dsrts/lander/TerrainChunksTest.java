@@ -0,0 +1,90 @@
+package com.dsrts.lander;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.World;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TerrainChunksTest {
+    @Test
+    public void streamsABoundedWindowWithMatchingSeams() {
+        int samples = 4800 * 4;
+        float width = samples * Terrain.SAMPLE_SPACING_M;
+        int[] pads = Terrain.layoutPads(samples);
+        float[] heights = new float[samples];
+        FractalTerrain.generate(heights, pads, Terrain.padWidth, 4L, 1);
+
+        int chunkSamples = 256, maxLive = 5;
+        float chunkWidth = chunkSamples * Terrain.SAMPLE_SPACING_M;
+        int chunkCount = (samples - 1 + chunkSamples - 1) / chunkSamples;
+        World world = new World(new Vector2(0, -Physics.GRAVITY), true);
+        try {
+            TerrainChunks chunks = new TerrainChunks(world, heights, width, pads, Terrain.padWidth, chunkSamples, maxLive);
+            for (float x = 0; x < width; x += 7.3f) {
+                chunks.update(x);
+                int c = Math.min((int)(x / chunkWidth), chunkCount - 1);
+                assertTrue(chunks.liveChunkCount() <= maxLive, "live chunks at x=" + x);
+                for (int i = Math.max(0, c - 1); i <= Math.min(chunkCount - 1, c + 1); i++) {
+                    assertNotNull(chunks.liveChunk(i), "chunk " + i + " around x=" + x);
+                }
+                // Sweeping right, only the most recent chunks survive
+                for (int i = 0; i < c - maxLive + 1; i++) assertNull(chunks.liveChunk(i), "chunk " + i + " behind x=" + x);
+            }
+            assertEquals(maxLive, chunks.liveChunkCount());
+
+            // Walk back so every seam has both sides live at some point
+            Vector2 v = new Vector2(), w = new Vector2();
+            for (int c = chunkCount - 2; c >= 0; c--) {
+                chunks.update((c + 0.5f) * chunkWidth);
+                TerrainChunks.Chunk left = chunks.liveChunk(c), right = chunks.liveChunk(c + 1);
+                ChainShape a = (ChainShape)left.surface.getShape();
+                ChainShape b = (ChainShape)right.surface.getShape();
+                assertEquals(chunkSamples + 1, a.getVertexCount());
+
+                // The seam vertex is shared, and each ghost is the neighbour's vertex next to it
+                a.getVertex(a.getVertexCount() - 1, v);
+                b.getVertex(0, w);
+                assertEquals(v, w, "seam " + c);
+                b.getVertex(1, w);
+                assertEquals(w.x, left.ghosts[2], 1e-4f, "next ghost of " + c);
+                assertEquals(w.y, left.ghosts[3], "next ghost of " + c);
+                a.getVertex(a.getVertexCount() - 2, v);
+                assertEquals(v.x, right.ghosts[0], 1e-4f, "prev ghost of " + (c + 1));
+                assertEquals(v.y, right.ghosts[1], "prev ghost of " + (c + 1));
+                assertTrue(chunks.liveChunkCount() <= maxLive);
+            }
+            assertTrue(Float.isNaN(chunks.liveChunk(0).ghosts[0]), "no ghost before the first sample");
+        } finally {
+            world.dispose();
+        }
+    }
+
+    @Test
+    public void landsOnAPadSplitAcrossASeam() {
+        int samples = 4800;
+        float width = samples * Terrain.SAMPLE_SPACING_M;
+        int seam = 4 * TerrainChunks.DEFAULT_CHUNK_SAMPLES;
+        int[] pads = {seam}; // half the pad in each chunk
+        float[] heights = new float[samples];
+        FractalTerrain.generate(heights, pads, Terrain.padWidth, 8L, 1);
+
+        Simulation sim = new Simulation(heights, width, pads, true);
+        try {
+            BatchRunner.Scenario s = new BatchRunner.Scenario();
+            s.pad = 0;
+            sim.place(seam * Terrain.SAMPLE_SPACING_M, 80f, 0f, -2f, 0f);
+            sim.lander.flyByWireMode = true;
+            while (sim.lander.alive && !sim.lander.landed && sim.steps < 60 * 120) {
+                BatchRunner.autopilot(sim, s);
+                sim.step();
+            }
+            assertTrue(sim.lander.landed, "should land on the split pad");
+            assertNotNull(sim.chunks.liveChunk(3));
+            assertEquals(1, sim.chunks.liveChunk(3).pads.size, "left half of the pad");
+            assertEquals(1, sim.chunks.liveChunk(4).pads.size, "right half of the pad");
+        } finally {
+            sim.dispose();
+        }
+    }
+}
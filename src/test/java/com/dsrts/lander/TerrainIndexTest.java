@@ -0,0 +1,55 @@
+package com.dsrts.lander;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TerrainIndexTest {
+    @Test
+    public void queriesMatchBruteForce() {
+        int samples = 20_000;
+        float width = samples * Terrain.SAMPLE_SPACING_M;
+        float[] heights = new float[samples];
+        int[] pads = Terrain.layoutPads(samples);
+        Terrain.generateHeights(heights, pads, Terrain.padWidth, 3L);
+        TerrainIndex index = new TerrainIndex(heights, width, pads, Terrain.padWidth);
+        float spacing = index.spacing;
+
+        assertEquals(heights[123], index.heightAt(123 * spacing), 1e-4f);
+        assertEquals((heights[123] + heights[124]) / 2f, index.heightAt(123.5f * spacing), 1e-4f);
+        assertEquals((heights[124] - heights[123]) / spacing, index.slopeAt(123.5f * spacing), 1e-3f);
+
+        Random rng = new Random(1);
+        for (int q = 0; q < 500; q++) {
+            float x0 = rng.nextFloat() * width;
+            float x1 = Math.min(width, x0 + rng.nextFloat() * (q % 2 == 0 ? 5f : 600f));
+
+            float max = Math.max(index.heightAt(x0), index.heightAt(x1));
+            float min = Math.min(index.heightAt(x0), index.heightAt(x1));
+            for (int i = 0; i < samples; i++) {
+                if (i * spacing >= x0 && i * spacing <= x1) {
+                    max = Math.max(max, heights[i]);
+                    min = Math.min(min, heights[i]);
+                }
+            }
+            assertEquals(max, index.maxHeight(x0, x1), "max over " + x0 + ".." + x1);
+            assertEquals(min, index.minHeight(x0, x1), "min over " + x0 + ".." + x1);
+
+            float y0 = 20f + rng.nextFloat() * 80f, y1 = 20f + rng.nextFloat() * 80f;
+            float clearance = Math.min(y0 - index.heightAt(x0), y1 - index.heightAt(x1));
+            float dydx = x1 > x0 ? (y1 - y0) / (x1 - x0) : 0f;
+            for (int i = 0; i < samples; i++) {
+                float x = i * spacing;
+                if (x >= x0 && x <= x1) clearance = Math.min(clearance, y0 + (x - x0) * dydx - heights[i]);
+            }
+            assertEquals(clearance, index.clearance(x0, y0, x1, y1), 1e-3f);
+
+            int nearest = 0;
+            for (int p = 1; p < pads.length; p++) {
+                if (Math.abs(pads[p] * spacing - x0) < Math.abs(pads[nearest] * spacing - x0)) nearest = p;
+            }
+            assertEquals(Math.abs(pads[nearest] * spacing - x0), Math.abs(index.padX(index.nearestPad(x0)) - x0), 1e-3f);
+        }
+        assertTrue(index.overPad(index.padX(2)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.dsrts.lander;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VecEnvTest {
+    @Test
+    public void resultsDoNotDependOnThreadCount() {
+        VecEnv one = new VecEnv(6, 3L, 1, 600);
+        VecEnv three = new VecEnv(6, 3L, 3, 600);
+        try {
+            for (int t = 0; t < 300; t++) {
+                for (int i = 0; i < 6 * VecEnv.ACTION_SIZE; i++) {
+                    float a = (t / 20 + i) % 3 * 0.2f;
+                    one.actions.put(i, a);
+                    three.actions.put(i, a);
+                }
+                one.step();
+                three.step();
+            }
+            for (int i = 0; i < 6 * VecEnv.OBS_SIZE; i++) {
+                assertEquals(one.observations.get(i), three.observations.get(i), "observation " + i);
+            }
+            for (int i = 0; i < 6; i++) assertEquals(one.rewards.get(i), three.rewards.get(i));
+        } finally {
+            one.close();
+            three.close();
+        }
+    }
+
+    @Test
+    public void finishedEnvironmentsResetInTheSameStep() {
+        VecEnv env = new VecEnv(4, 9L, 1, 100_000);
+        try {
+            // Engines off: every lander falls and crashes
+            boolean[] crashed = new boolean[4];
+            for (int t = 0; t < 60 * 30; t++) {
+                env.step();
+                for (int i = 0; i < 4; i++) {
+                    if (env.doneBuffer.get(i) == LanderEnv.DONE_CRASHED) {
+                        crashed[i] = true;
+                        assertTrue(env.finalObservations.get(i * VecEnv.OBS_SIZE + LanderEnv.OBS_ALTITUDE) < 1f,
+                                "final observation is the crash");
+                        assertTrue(env.observations.get(i * VecEnv.OBS_SIZE + LanderEnv.OBS_ALTITUDE) > 40f,
+                                "observation is already the next episode's start");
+                        assertTrue(env.rewards.get(i) < LanderEnv.CRASH_REWARD / 2);
+                    }
+                }
+            }
+            for (int i = 0; i < 4; i++) assertTrue(crashed[i], "env " + i + " should have crashed");
+            assertTrue(env.episodes() >= 4);
+            assertTrue(env.simulation(0).lander.alive);
+        } finally {
+            env.close();
+        }
+    }
+
+    @Test
+    public void environmentsTickThroughTheSimulation() {
+        VecEnv env = new VecEnv(1, 5L, 1, 600);
+        try {
+            Simulation sim = env.simulation(0);
+            sim.perf = new PerfStats();
+            env.actions.put(0, 2f);
+            env.actions.put(1, 0.5f);
+            float y = sim.lander.y;
+            env.step();
+            assertEquals(1f, sim.lander.throttleLeft, "throttles are clamped");
+            assertEquals(0.5f, sim.lander.throttleRight);
+            assertEquals(y, sim.lander.prevY, "previous state kept for interpolation");
+            assertEquals(1, sim.perf.worldStepNanos.count());
+        } finally {
+            env.close();
+        }
+    }
+}